@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试使用的数据。
+ */
+final class BenchmarkData {
+    // 固定的随机数种子，使每次运行的数据相同。
+    private static final long SEED = 42;
+
+    private BenchmarkData() {}
+
+    /**
+     * 创建一个给定长度的字符串。
+     * @param size 字符串的长度。
+     * @return 由可打印的 ASCII 字符组成的字符串。
+     */
+    static String text(int size) {
+        Random random = new Random(SEED);
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 创建一个给定长度的字节数组。
+     * @param size 字节数组的长度。
+     * @return 随机内容的字节数组，不可压缩。
+     */
+    static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(SEED).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * 创建一个对象。
+     * @param tags 对象包含的标签的数量。
+     * @return 对象。
+     */
+    static Sample sample(int tags) {
+        Sample sample = new Sample();
+        sample.setId(SEED);
+        sample.setName(text(32));
+        List<String> list = new ArrayList<>(tags);
+        for (int i = 0; i < tags; i++) {
+            list.add("tag-" + i);
+        }
+        sample.setTags(list);
+        return sample;
+    }
+
+    /**
+     * 删除一个目录及其中的所有文件。
+     * @param directory 要删除的目录。
+     * @throws IOException 删除失败时抛出。
+     */
+    static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 用于序列化基准测试的对象。
+     */
+    public static class Sample {
+        private long id;
+        private String name;
+        private List<String> tags;
+
+        public long getId() {
+            return this.id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getTags() {
+            return this.tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import io.github.drawmoon.hybridcache.HybridCache;
+import io.github.drawmoon.hybridcache.HybridCacheEntryOptions;
+import io.github.drawmoon.hybridcache.HybridCachePlace;
+import io.github.drawmoon.hybridcache.MemoryCacheMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 测量多个线程同时访问内存缓存时的吞吐量。
+ * <p>
+ * {@code hotKey} 中所有线程读取同一个键，{@code readWrite} 组中 7 个线程读取、1 个线程写入随机的键。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+    private static final int KEYS = 10_000;
+
+    @Param({"HEAP", "OFF_HEAP"})
+    private MemoryCacheMode memoryCacheMode;
+
+    private HybridCache hybridCache;
+    private HybridCacheEntryOptions entryOptions;
+    private String[] keys;
+    private String value;
+
+    @Setup
+    public void setup() {
+        this.hybridCache = new HybridCache(option -> {
+            option.setMemoryCacheMode(this.memoryCacheMode);
+            option.setSizeLimit(KEYS * 2);
+        });
+        this.entryOptions = new HybridCacheEntryOptions();
+        this.entryOptions.setCachePlace(HybridCachePlace.MEMORY);
+        this.entryOptions.setAbsoluteExpiration(TimeUnit.HOURS.toSeconds(1));
+        this.value = BenchmarkData.text(256);
+
+        this.keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            this.keys[i] = "benchmark:contention:" + i;
+            this.hybridCache.set(this.keys[i], this.value, this.entryOptions);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.hybridCache.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] hotKey() {
+        return this.hybridCache.get(this.keys[0]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(7)
+    public byte[] read() {
+        return this.hybridCache.get(this.keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write() {
+        this.hybridCache.set(this.keys[ThreadLocalRandom.current().nextInt(KEYS)], this.value, this.entryOptions);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import io.github.drawmoon.hybridcache.HybridStore;
+import io.github.drawmoon.hybridcache.HybridStorePlace;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 测量本地存储中写入和读取 1 KB 到 100 MB 的缓存项的开销。
+ * <p>
+ * {@code getBuffer} 读取通过 {@link HybridStore#put(String, byte[])} 写入的文件，达到内存映射阈值的文件只建立映射而不复制。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class HybridStoreBenchmark {
+    private static final String KEY = "benchmark:store";
+
+    @Param({"1024", "65536", "1048576", "16777216", "104857600"})
+    private int size;
+
+    private Path directory;
+    private HybridStore hybridStore;
+    private byte[] data;
+    private String fileKey;
+
+    @Setup
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("hybridcache-benchmark");
+        this.hybridStore = new HybridStore(option -> {
+            option.setStorePlace(HybridStorePlace.LOCAL);
+            option.setBucket(this.directory.toString());
+        });
+        this.data = BenchmarkData.bytes(this.size);
+        this.hybridStore.putEntry(KEY, this.data);
+        this.fileKey = this.hybridStore.put("benchmark.bin", this.data);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteRecursively(this.directory);
+    }
+
+    @Benchmark
+    public void putEntry() {
+        this.hybridStore.putEntry(KEY, this.data);
+    }
+
+    @Benchmark
+    public byte[] getEntry() {
+        return this.hybridStore.getEntry(KEY);
+    }
+
+    @Benchmark
+    public ByteBuffer getBuffer() {
+        return this.hybridStore.getBuffer(this.fileKey);
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import io.github.drawmoon.hybridcache.utils.NamedThreadFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个在进程内运行的 Redis 替身，用于在没有 Redis 的环境中测量 Redis 路径的开销。
+ * <p>
+ * 只实现 {@code HybridCache} 读写值时用到的命令，使用 RESP2 协议，每个连接一个线程，数据保存在
+ * {@link ConcurrentHashMap} 中，过期的键在访问时删除。它测量的是客户端、编解码和回环网络的开销，
+ * 不能代替对真实 Redis 的测量。
+ */
+final class InProcessRedisServer implements AutoCloseable {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    // 监听回环地址上的随机端口的套接字。
+    private final ServerSocket serverSocket;
+    // 接受连接和处理连接的线程池。
+    private final ExecutorService executor = Executors.newCachedThreadPool(new NamedThreadFactory("redis-stand-in"));
+    // 键与值的映射。
+    private final ConcurrentMap<ByteBuffer, Value> data = new ConcurrentHashMap<>();
+
+    /**
+     * 创建并启动一个新的 Redis 替身。
+     * @throws IOException 无法监听端口时抛出。
+     */
+    InProcessRedisServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        this.executor.execute(this::accept);
+    }
+
+    /**
+     * 获取用于 {@code RedisCacheOptions#setConfiguration(String)} 的地址。
+     * @return 主机和端口。
+     */
+    String getConfiguration() {
+        return "127.0.0.1:" + this.serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        this.executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                this.executor.execute(() -> this.serve(socket));
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+                InputStream in = new BufferedInputStream(s.getInputStream());
+                OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+            for (; ; ) {
+                List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+
+                this.execute(command, out);
+                // 管道中的命令全部处理后再发送回复
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private void execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING":
+                writeSimple(out, "PONG");
+                break;
+            case "GET":
+                writeBulk(out, this.get(command.get(1)));
+                break;
+            case "SET":
+                this.set(command, out);
+                break;
+            case "MGET":
+                out.write(("*" + (command.size() - 1)).getBytes(StandardCharsets.US_ASCII));
+                out.write(CRLF);
+                for (int i = 1; i < command.size(); i++) {
+                    writeBulk(out, this.get(command.get(i)));
+                }
+                break;
+            case "DEL":
+                long deleted = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    if (this.data.remove(ByteBuffer.wrap(command.get(i))) != null) {
+                        deleted++;
+                    }
+                }
+                writeInteger(out, deleted);
+                break;
+            case "PTTL":
+                writeInteger(out, this.pttl(command.get(1)));
+                break;
+            case "PEXPIRE":
+            case "EXPIRE":
+                long expiration = Long.parseLong(new String(command.get(2), StandardCharsets.US_ASCII));
+                long millis = name.equals("EXPIRE") ? TimeUnit.SECONDS.toMillis(expiration) : expiration;
+                writeInteger(out, this.expire(command.get(1), millis) ? 1 : 0);
+                break;
+            case "FLUSHALL":
+            case "FLUSHDB":
+                this.data.clear();
+                writeSimple(out, "OK");
+                break;
+            default:
+                // 包括 HELLO，客户端因此回退到 RESP2
+                writeError(out, "ERR unknown command '" + name + "'");
+                break;
+        }
+    }
+
+    private byte[] get(byte[] key) {
+        Value value = this.live(key);
+        return value != null ? value.bytes : null;
+    }
+
+    private void set(List<byte[]> command, OutputStream out) throws IOException {
+        long expiresAt = 0;
+        boolean nx = false;
+        for (int i = 3; i < command.size(); i++) {
+            String option = new String(command.get(i), StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+            if (option.equals("NX")) {
+                nx = true;
+            } else if (option.equals("EX") || option.equals("PX")) {
+                long expiration = Long.parseLong(new String(command.get(++i), StandardCharsets.US_ASCII));
+                long millis = option.equals("EX") ? TimeUnit.SECONDS.toMillis(expiration) : expiration;
+                expiresAt = System.currentTimeMillis() + millis;
+            }
+        }
+
+        ByteBuffer key = ByteBuffer.wrap(command.get(1));
+        Value value = new Value(command.get(2), expiresAt);
+        if (nx) {
+            this.live(command.get(1));
+            if (this.data.putIfAbsent(key, value) != null) {
+                writeBulk(out, null);
+                return;
+            }
+        } else {
+            this.data.put(key, value);
+        }
+        writeSimple(out, "OK");
+    }
+
+    private long pttl(byte[] key) {
+        Value value = this.live(key);
+        if (value == null) {
+            return -2;
+        }
+        return value.expiresAt > 0 ? Math.max(value.expiresAt - System.currentTimeMillis(), 0) : -1;
+    }
+
+    private boolean expire(byte[] key, long millis) {
+        Value value = this.live(key);
+        if (value == null) {
+            return false;
+        }
+        return this.data.replace(
+                ByteBuffer.wrap(key), value, new Value(value.bytes, System.currentTimeMillis() + millis));
+    }
+
+    /**
+     * 获取一个未过期的值，并删除已过期的值。
+     * @param key 键。
+     * @return 未过期的值，不存在或已过期时返回 {@code null}。
+     */
+    private Value live(byte[] key) {
+        ByteBuffer buffer = ByteBuffer.wrap(key);
+        Value value = this.data.get(buffer);
+        if (value != null && value.expiresAt > 0 && value.expiresAt <= System.currentTimeMillis()) {
+            this.data.remove(buffer, value);
+            return null;
+        }
+        return value;
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Unsupported request type: " + (char) type);
+        }
+
+        int count = (int) readNumber(in);
+        List<byte[]> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected a bulk string");
+            }
+
+            byte[] bytes = new byte[(int) readNumber(in)];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new EOFException();
+                }
+                offset += read;
+            }
+            in.read();
+            in.read();
+            command.add(bytes);
+        }
+        return command;
+    }
+
+    private static long readNumber(InputStream in) throws IOException {
+        long number = 0;
+        boolean negative = false;
+        for (int c = in.read(); c != '\r'; c = in.read()) {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            if (c == '-') {
+                negative = true;
+            } else {
+                number = number * 10 + (c - '0');
+            }
+        }
+        in.read();
+        return negative ? -number : number;
+    }
+
+    private static void writeSimple(OutputStream out, String message) throws IOException {
+        out.write(('+' + message).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    private static void writeError(OutputStream out, String message) throws IOException {
+        out.write(('-' + message).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    private static void writeInteger(OutputStream out, long value) throws IOException {
+        out.write((":" + value).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    private static void writeBulk(OutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.write("$-1".getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+            return;
+        }
+
+        out.write(("$" + bytes.length).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+        out.write(bytes);
+        out.write(CRLF);
+    }
+
+    /**
+     * 一个值及其过期时间。
+     */
+    private static final class Value {
+        // 值。
+        private final byte[] bytes;
+        // 以 Unix 纪元以来的毫秒数表示的过期时间，0 表示永不过期。
+        private final long expiresAt;
+
+        private Value(byte[] bytes, long expiresAt) {
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
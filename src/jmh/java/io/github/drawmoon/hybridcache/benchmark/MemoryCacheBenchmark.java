@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import io.github.drawmoon.hybridcache.HybridCache;
+import io.github.drawmoon.hybridcache.HybridCachePlace;
+import io.github.drawmoon.hybridcache.MemoryCacheMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 测量命中内存缓存时 {@link HybridCache#get(String)} 和 {@link HybridCache#get(String, Class)} 的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryCacheBenchmark {
+    private static final String KEY = "benchmark:memory";
+
+    @Param({"64", "1024", "16384"})
+    private int valueSize;
+
+    @Param({"HEAP", "OFF_HEAP"})
+    private MemoryCacheMode memoryCacheMode;
+
+    private HybridCache hybridCache;
+
+    @Setup
+    public void setup() {
+        this.hybridCache = new HybridCache(option -> option.setMemoryCacheMode(this.memoryCacheMode));
+        this.hybridCache.set(KEY, BenchmarkData.text(this.valueSize), options -> {
+            options.setCachePlace(HybridCachePlace.MEMORY);
+            options.setAbsoluteExpiration(TimeUnit.HOURS.toSeconds(1));
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.hybridCache.close();
+    }
+
+    @Benchmark
+    public byte[] get() {
+        return this.hybridCache.get(KEY);
+    }
+
+    @Benchmark
+    public String getString() {
+        return this.hybridCache.get(KEY, String.class);
+    }
+}
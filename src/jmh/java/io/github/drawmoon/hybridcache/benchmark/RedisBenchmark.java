@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import io.github.drawmoon.hybridcache.HybridCache;
+import io.github.drawmoon.hybridcache.HybridCacheEntryOptions;
+import io.github.drawmoon.hybridcache.HybridCachePlace;
+import io.github.drawmoon.hybridcache.PromotionPolicy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 测量 Redis 路径的开销，包括单个读写、MGET 和管道写入。
+ * <p>
+ * 默认连接到进程内的 {@link InProcessRedisServer}，设置系统属性 {@code hybridcache.redis} 可以改为连接真实的 Redis。
+ * 命中的值不提升到内存缓存中，因此每次读取都经过 Redis。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisBenchmark {
+    private static final String KEY = "benchmark:redis";
+    private static final int BATCH = 16;
+
+    @Param({"64", "16384"})
+    private int valueSize;
+
+    private InProcessRedisServer server;
+    private HybridCache hybridCache;
+    private HybridCacheEntryOptions entryOptions;
+    private String value;
+    private List<String> keys;
+    private Map<String, String> values;
+
+    @Setup
+    public void setup() throws IOException {
+        String configuration = System.getProperty("hybridcache.redis");
+        if (configuration == null) {
+            this.server = new InProcessRedisServer();
+            configuration = this.server.getConfiguration();
+        }
+
+        String redisConfiguration = configuration;
+        this.hybridCache = new HybridCache(option -> {
+            option.getRedisCacheOptions().setConfiguration(redisConfiguration);
+            option.setPromotionPolicy(PromotionPolicy.never());
+        });
+        this.entryOptions = new HybridCacheEntryOptions();
+        this.entryOptions.setCachePlace(HybridCachePlace.DISTRIBUTED);
+        this.entryOptions.setAbsoluteExpiration(TimeUnit.HOURS.toSeconds(1));
+        this.value = BenchmarkData.text(this.valueSize);
+
+        this.keys = new ArrayList<>(BATCH);
+        this.values = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH; i++) {
+            this.keys.add(KEY + ":" + i);
+            this.values.put(KEY + ":" + i, this.value);
+        }
+        this.hybridCache.set(KEY, this.value, this.entryOptions);
+        this.hybridCache.setAll(this.values, this.entryOptions);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.hybridCache.close();
+        if (this.server != null) {
+            this.server.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] get() {
+        return this.hybridCache.get(KEY);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] getContended() {
+        return this.hybridCache.get(KEY);
+    }
+
+    @Benchmark
+    public void set() {
+        this.hybridCache.set(KEY, this.value, this.entryOptions);
+    }
+
+    @Benchmark
+    public Map<String, byte[]> getAll() {
+        return this.hybridCache.getAll(this.keys);
+    }
+
+    @Benchmark
+    public void setAll() {
+        this.hybridCache.setAll(this.values, this.entryOptions);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import io.github.drawmoon.hybridcache.PrimitiveSerializer;
+import io.github.drawmoon.hybridcache.Serializer;
+import io.github.drawmoon.hybridcache.utils.TypeUtils;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 测量写入缓存之前将对象转换为字节数组的开销，以及读取时的反向转换。
+ * <p>
+ * {@link TypeUtils} 使用默认的 BSON 序列化器，{@link PrimitiveSerializer} 用于对比基本类型的定长编码。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"1", "16", "256"})
+    private int tags;
+
+    private final Serializer primitive = new PrimitiveSerializer();
+
+    private BenchmarkData.Sample sample;
+    private byte[] sampleBytes;
+    private byte[] longBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        this.sample = BenchmarkData.sample(this.tags);
+        this.sampleBytes = TypeUtils.toBytes(this.sample);
+        this.longBytes = this.primitive.serialize(42L);
+    }
+
+    @Benchmark
+    public byte[] typeUtilsToBytes() throws IOException {
+        return TypeUtils.toBytes(this.sample);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample typeUtilsFromBytes() throws Exception {
+        return TypeUtils.fromBytes(this.sampleBytes, BenchmarkData.Sample.class);
+    }
+
+    @Benchmark
+    public byte[] primitiveSerialize() throws IOException {
+        return this.primitive.serialize(42L);
+    }
+
+    @Benchmark
+    public Long primitiveDeserialize() throws IOException {
+        return this.primitive.deserialize(this.longBytes, Long.class);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.benchmark;
+
+import io.github.drawmoon.hybridcache.HybridCache;
+import io.github.drawmoon.hybridcache.HybridCacheEntryOptions;
+import io.github.drawmoon.hybridcache.HybridCachePlace;
+import io.github.drawmoon.hybridcache.HybridStorePlace;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 测量 {@link HybridCache#set(String, Object, HybridCacheEntryOptions)} 写入每一种缓存位置的开销。
+ * <p>
+ * 没有配置 Redis，{@link HybridCachePlace#DISTRIBUTED} 的值写入本地存储，{@link HybridCachePlace#AUTO} 的值按默认的优先级
+ * 同样写入本地存储。Redis 路径见 {@link RedisBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetBenchmark {
+    private static final String KEY = "benchmark:set";
+
+    @Param({"AUTO", "MEMORY", "DISTRIBUTED"})
+    private HybridCachePlace cachePlace;
+
+    @Param({"64", "16384"})
+    private int valueSize;
+
+    private Path directory;
+    private HybridCache hybridCache;
+    private HybridCacheEntryOptions entryOptions;
+    private String value;
+
+    @Setup
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("hybridcache-benchmark");
+        this.hybridCache = new HybridCache(option -> {
+            option.getHybridStoreOption().setStorePlace(HybridStorePlace.LOCAL);
+            option.getHybridStoreOption().setBucket(this.directory.toString());
+        });
+        this.entryOptions = new HybridCacheEntryOptions();
+        this.entryOptions.setCachePlace(this.cachePlace);
+        this.value = BenchmarkData.text(this.valueSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.hybridCache.close();
+        BenchmarkData.deleteRecursively(this.directory);
+    }
+
+    @Benchmark
+    public void set() {
+        this.hybridCache.set(KEY, this.value, this.entryOptions);
+    }
+}
@@ -23,7 +23,7 @@ package io.github.drawmoon.hybridcache;
  */
 public enum CacheItemPriority {
     /**
-     * 存储在分布式缓存中。
+     * 存储在分布式缓存中，不写入也不提升到内存缓存和本地磁盘缓存。
      */
     LOW,
 
@@ -33,12 +33,13 @@ public enum CacheItemPriority {
     NORMAL,
 
     /**
-     * 存储在内存缓存中。
+     * 存储在内存缓存中，优先占用 {@link HybridCacheOptions#getHighPriorityRatio()} 保留的区域，不被普通的缓存项挤出。
      */
     HIGH,
 
     /**
-     * 存储在磁盘（本地或分布式对象存储，取决于 HybridOBS）和分布式缓存（如果可用）中。
+     * 存储在磁盘（本地或分布式对象存储，取决于 HybridOBS）和分布式缓存（如果可用）中，
+     * 并固定在内存缓存中，只在过期或被移除时离开内存缓存。
      */
     NEVER_REMOVE,
 }
@@ -0,0 +1,263 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 一个缓存层的断路器。
+ * <p>
+ * 断路器在关闭状态中按固定数量的最近调用统计失败率和慢调用率，任一比例达到阈值时打开。
+ * 打开状态中 {@link #allowRequest()} 只读取一个字段就返回 {@code false}，调用者直接跳过该层。
+ * 等待 {@link CircuitBreakerOptions#getOpenDuration()} 后，断路器由下一个请求或外部的健康检查转为半开状态，
+ * 半开状态中的调用都被允许，在完成 {@link CircuitBreakerOptions#getHalfOpenCalls()} 次调用后根据其结果关闭或重新打开。
+ * <p>
+ * 半开状态不限制并发调用的数量，因此不需要在调用结束时归还许可，检查可用性而没有发出调用的请求不会使断路器停留在半开状态。
+ */
+final class CircuitBreaker {
+    /**
+     * 表示断路器的状态。
+     */
+    enum State {
+        /**
+         * 表示调用被允许，并统计调用的结果。
+         */
+        CLOSED,
+
+        /**
+         * 表示调用被跳过。
+         */
+        OPEN,
+
+        /**
+         * 表示调用被允许，并根据调用的结果决定关闭或重新打开。
+         */
+        HALF_OPEN
+    }
+
+    // 断路器选项。
+    private final CircuitBreakerOptions options;
+    // 是否由外部的健康检查将断路器从打开状态转为半开状态。
+    private final boolean probed;
+    // 慢调用的阈值，以纳秒为单位。
+    private final long slowCallNanos;
+    // 打开状态的持续时间，以纳秒为单位。
+    private final long openNanos;
+
+    // 断路器的状态。
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    // 断路器打开的时间，以 System.nanoTime() 表示。
+    private volatile long openedAt;
+    // 当前状态中统计调用结果的窗口，状态改变时被替换。
+    private volatile Window window;
+
+    /**
+     * 创建一个新的断路器实例。
+     * @param options 断路器选项。
+     * @param probed 是否由外部的健康检查通过 {@link #onProbeSuccess()} 将断路器从打开状态转为半开状态，
+     *     否则由打开状态持续一段时间后的第一个请求转为半开状态。
+     */
+    CircuitBreaker(CircuitBreakerOptions options, boolean probed) {
+        this.options = options;
+        this.probed = probed;
+        this.slowCallNanos = options.getSlowCallDurationThreshold().toNanos();
+        this.openNanos = options.getOpenDuration().toNanos();
+        this.window = new Window(Math.max(options.getWindowSize(), 1));
+    }
+
+    /**
+     * 获取断路器的状态。
+     * @return 断路器的状态。
+     */
+    State getState() {
+        return this.state.get();
+    }
+
+    /**
+     * 获取是否允许调用。
+     * @return 如果断路器没有打开，则为 {@code true}。
+     */
+    boolean allowRequest() {
+        if (!this.options.isEnabled() || this.state.get() != State.OPEN) {
+            return true;
+        }
+        if (!this.probed && this.isProbeDue()) {
+            this.transition(State.OPEN, State.HALF_OPEN);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 获取是否需要通过健康检查探测该层是否已经恢复。
+     * @return 如果断路器已经打开了足够长的时间，则为 {@code true}。
+     */
+    boolean isProbeDue() {
+        return this.state.get() == State.OPEN && System.nanoTime() - this.openedAt >= this.openNanos;
+    }
+
+    /**
+     * 健康检查成功，将断路器从打开状态转为半开状态。
+     */
+    void onProbeSuccess() {
+        this.transition(State.OPEN, State.HALF_OPEN);
+    }
+
+    /**
+     * 健康检查失败，重新开始等待。
+     */
+    void onProbeFailure() {
+        if (this.state.get() == State.OPEN) {
+            this.openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * 记录一次成功的调用。
+     * @param nanos 调用的耗时，以纳秒为单位。
+     */
+    void onSuccess(long nanos) {
+        this.record(nanos >= this.slowCallNanos ? Window.SLOW : 0);
+    }
+
+    /**
+     * 记录一次失败的调用。
+     * @param nanos 调用的耗时，以纳秒为单位。
+     */
+    void onFailure(long nanos) {
+        this.record(Window.FAILURE | (nanos >= this.slowCallNanos ? Window.SLOW : 0));
+    }
+
+    /**
+     * 记录一次调用的结果，并根据当前窗口中的结果决定是否改变状态。
+     * @param outcome 调用的结果。
+     */
+    private void record(int outcome) {
+        if (!this.options.isEnabled()) {
+            return;
+        }
+
+        State state = this.state.get();
+        if (state == State.OPEN) {
+            return;
+        }
+
+        Window window = this.window;
+        int calls = window.record(outcome);
+        if (window != this.window) {
+            return;
+        }
+
+        if (state == State.CLOSED) {
+            if (calls >= this.options.getMinimumCalls() && this.exceedsThresholds(window, calls)) {
+                this.transition(State.CLOSED, State.OPEN);
+            }
+        } else if (calls >= this.options.getHalfOpenCalls()) {
+            this.transition(State.HALF_OPEN, this.exceedsThresholds(window, calls) ? State.OPEN : State.CLOSED);
+        }
+    }
+
+    /**
+     * 判断一个窗口中的失败率或慢调用率是否达到阈值。
+     * @param window 统计调用结果的窗口。
+     * @param calls 窗口中的调用数量。
+     * @return 如果任一比例达到阈值，则为 {@code true}。
+     */
+    private boolean exceedsThresholds(Window window, int calls) {
+        return window.failures.get() >= this.options.getFailureRateThreshold() * calls
+                || window.slowCalls.get() >= this.options.getSlowCallRateThreshold() * calls;
+    }
+
+    /**
+     * 将断路器从一个状态转为另一个状态，并开始一个新的窗口。
+     * @param expected 期望的当前状态。
+     * @param target 目标状态。
+     */
+    private void transition(State expected, State target) {
+        if (!this.state.compareAndSet(expected, target)) {
+            return;
+        }
+
+        if (target == State.OPEN) {
+            this.openedAt = System.nanoTime();
+        }
+        int size = target == State.HALF_OPEN ? this.options.getHalfOpenCalls() : this.options.getWindowSize();
+        this.window = new Window(Math.max(size, 1));
+    }
+
+    /**
+     * 按固定数量的最近调用统计调用结果的环形窗口。
+     */
+    private static final class Window {
+        // 表示调用失败。
+        static final int FAILURE = 1;
+        // 表示调用耗时达到慢调用的阈值。
+        static final int SLOW = 2;
+        // 表示窗口中的位置还没有记录调用。
+        private static final int EMPTY = -1;
+
+        // 每个位置上记录的调用结果。
+        private final AtomicIntegerArray outcomes;
+        // 下一次记录的位置。
+        private final AtomicLong cursor = new AtomicLong();
+        // 窗口中的调用数量。
+        private final AtomicInteger calls = new AtomicInteger();
+        // 窗口中失败的调用数量。
+        final AtomicInteger failures = new AtomicInteger();
+        // 窗口中的慢调用数量。
+        final AtomicInteger slowCalls = new AtomicInteger();
+
+        Window(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+            for (int i = 0; i < size; i++) {
+                this.outcomes.set(i, EMPTY);
+            }
+        }
+
+        /**
+         * 记录一次调用的结果，替换窗口中最早的结果。
+         * @param outcome 调用的结果。
+         * @return 窗口中的调用数量。
+         */
+        int record(int outcome) {
+            int index = (int) (this.cursor.getAndIncrement() % this.outcomes.length());
+            int previous = this.outcomes.getAndSet(index, outcome);
+            if (previous == EMPTY) {
+                this.count(outcome, 1);
+                return this.calls.incrementAndGet();
+            }
+
+            this.count(previous, -1);
+            this.count(outcome, 1);
+            return this.calls.get();
+        }
+
+        private void count(int outcome, int delta) {
+            if ((outcome & FAILURE) != 0) {
+                this.failures.addAndGet(delta);
+            }
+            if ((outcome & SLOW) != 0) {
+                this.slowCalls.addAndGet(delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 断路器选项。
+ * <p>
+ * 断路器统计最近若干次调用的失败率和慢调用率，任一比例达到阈值时打开，在打开期间直接跳过该层。
+ * 打开一段时间后进入半开状态，根据半开状态中若干次调用的结果决定关闭或重新打开。
+ */
+public class CircuitBreakerOptions {
+    /**
+     * 是否启用断路器。
+     */
+    @Getter
+    @Setter
+    private boolean enabled = true;
+
+    /**
+     * 失败率的阈值，介于 0 到 1 之间。
+     */
+    @Getter
+    @Setter
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * 慢调用率的阈值，介于 0 到 1 之间。
+     */
+    @Getter
+    @Setter
+    private double slowCallRateThreshold = 0.5;
+
+    /**
+     * 耗时达到该时间的调用被视为慢调用。
+     */
+    @Getter
+    @Setter
+    private Duration slowCallDurationThreshold = Duration.ofSeconds(1);
+
+    /**
+     * 统计失败率和慢调用率的最近调用的数量。
+     */
+    @Getter
+    @Setter
+    private int windowSize = 100;
+
+    /**
+     * 计算失败率和慢调用率所需的最少调用数量。
+     */
+    @Getter
+    @Setter
+    private int minimumCalls = 20;
+
+    /**
+     * 断路器打开后进入半开状态之前等待的时间。
+     */
+    @Getter
+    @Setter
+    private Duration openDuration = Duration.ofSeconds(5);
+
+    /**
+     * 在半开状态中决定关闭或重新打开断路器所需的调用数量。
+     */
+    @Getter
+    @Setter
+    private int halfOpenCalls = 10;
+}
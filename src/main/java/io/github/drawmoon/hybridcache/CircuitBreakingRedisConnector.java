@@ -0,0 +1,299 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 通过断路器保护 Redis 的连接器，并在后台建立连接和检查 Redis 的健康状态。
+ * <p>
+ * 如果启动时无法连接到 Redis，则按健康检查的时间间隔在后台重新连接，连接建立后才开始使用 Redis。
+ * 连接建立后，每个命令的结果和耗时都被记录到断路器中，断路器打开时命令不再发送到 Redis，
+ * 而是按健康检查的时间间隔发送 {@code PING}，收到回复后断路器转为半开状态。
+ * 连接断开期间 Lettuce 在后台重新连接，此时的命令立即失败，而不是等待重新连接。
+ */
+final class CircuitBreakingRedisConnector extends RedisConnector {
+    // 被保护的连接器，在连接建立之前为 null。
+    private volatile RedisConnector delegate;
+    // Redis 的断路器。
+    private final CircuitBreaker circuitBreaker;
+
+    // 创建被保护的连接器的函数。
+    private final Supplier<RedisConnector> connect;
+    // 连接建立后执行的回调。
+    private final Consumer<RedisConnector> onConnected;
+    // 用于在后台建立连接的执行器，避免阻塞调度器。
+    private final Executor executor;
+    // 是否正在进行健康检查或建立连接。
+    private final AtomicBoolean checking = new AtomicBoolean();
+    // 按时间间隔执行健康检查的任务。
+    private final ScheduledFuture<?> healthCheckTask;
+    // 连接器已被关闭。
+    private volatile boolean closed;
+
+    /**
+     * 创建一个新的连接器实例，尝试连接到 Redis，失败时在后台重新连接。
+     * @param options Redis 缓存选项。
+     * @param scheduler 用于执行健康检查的调度器。
+     * @param executor 用于在后台建立连接的执行器。
+     * @param onConnected 连接建立后执行的回调，接收当前的连接器。
+     */
+    CircuitBreakingRedisConnector(
+            RedisCacheOptions options,
+            ScheduledExecutorService scheduler,
+            Executor executor,
+            Consumer<RedisConnector> onConnected) {
+        this.circuitBreaker = new CircuitBreaker(options.getCircuitBreakerOptions(), true);
+        this.connect = () -> RedisConnector.create(options, scheduler);
+        this.onConnected = onConnected;
+        this.executor = executor;
+
+        this.tryConnect();
+
+        long interval = Math.max(options.getHealthCheckInterval().toNanos(), 1);
+        this.healthCheckTask =
+                scheduler.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取断路器。
+     * @return Redis 的断路器。
+     */
+    CircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    /**
+     * 获取是否可以向 Redis 发送命令。
+     * @return 如果连接已经建立并且断路器没有打开，则为 {@code true}。
+     */
+    boolean isAvailable() {
+        return this.delegate != null && this.circuitBreaker.allowRequest();
+    }
+
+    @Override
+    <T> CompletableFuture<T> execute(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command) {
+        return this.guard(delegate -> delegate.execute(key, command));
+    }
+
+    @Override
+    <T> CompletableFuture<T> enqueue(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command) {
+        return this.guard(delegate -> delegate.enqueue(key, command));
+    }
+
+    @Override
+    CompletableFuture<Void> ping() {
+        return this.guard(RedisConnector::ping);
+    }
+
+    @Override
+    CompletableFuture<List<KeyValue<byte[], byte[]>>> mget(byte[][] keys) {
+        return this.guard(delegate -> delegate.mget(keys));
+    }
+
+    @Override
+    CompletableFuture<Long> del(byte[][] keys) {
+        return this.guard(delegate -> delegate.del(keys));
+    }
+
+    @Override
+    CompletableFuture<Void> setAll(List<KeyValue<byte[], byte[]>> entries, SetArgs setArgs) {
+        return this.guard(delegate -> delegate.setAll(entries, setArgs));
+    }
+
+    @Override
+    StatefulRedisPubSubConnection<byte[], byte[]> connectPubSub() {
+        return this.connected().connectPubSub();
+    }
+
+    @Override
+    List<StatefulRedisConnection<byte[], byte[]>> getTrackedConnections() {
+        RedisConnector delegate = this.delegate;
+        return delegate != null ? delegate.getTrackedConnections() : Collections.emptyList();
+    }
+
+    @Override
+    void addReconnectListener(Consumer<StatefulRedisConnection<byte[], byte[]>> listener) {
+        RedisConnector delegate = this.delegate;
+        if (delegate != null) {
+            delegate.addReconnectListener(listener);
+        }
+    }
+
+    @Override
+    boolean isOpen() {
+        RedisConnector delegate = this.delegate;
+        return delegate != null && delegate.isOpen();
+    }
+
+    // Closes this resource, relinquishing any underlying resources.
+    @Override
+    public void close() {
+        RedisConnector delegate;
+        synchronized (this) {
+            this.closed = true;
+            delegate = this.delegate;
+        }
+
+        this.healthCheckTask.cancel(false);
+        if (delegate != null) {
+            delegate.close();
+        }
+    }
+
+    /**
+     * 在断路器允许时通过被保护的连接器发送命令，并将命令的结果和耗时记录到断路器中。
+     * <p>
+     * Redis 返回的错误回复说明 Redis 是可用的，不被记录为失败。
+     * @param command 通过被保护的连接器发送命令的函数。
+     * @param <T> 命令的结果类型。
+     * @return 命令的结果，断路器打开或连接尚未建立时以 {@link CircuitBreakerOpenException} 异常完成。
+     */
+    private <T> CompletableFuture<T> guard(Function<RedisConnector, CompletableFuture<T>> command) {
+        RedisConnector delegate = this.delegate;
+        if (delegate == null || !this.circuitBreaker.allowRequest()) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new CircuitBreakerOpenException(HybridCacheTier.REDIS));
+            return future;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = command.apply(delegate);
+        } catch (RuntimeException e) {
+            this.circuitBreaker.onFailure(System.nanoTime() - start);
+            throw e;
+        }
+        return future.whenComplete((result, e) -> {
+            long nanos = System.nanoTime() - start;
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause == null || cause instanceof RedisCommandExecutionException) {
+                this.circuitBreaker.onSuccess(nanos);
+            } else {
+                this.circuitBreaker.onFailure(nanos);
+            }
+        });
+    }
+
+    /**
+     * 获取已经建立连接的被保护的连接器。
+     * @return 被保护的连接器。
+     */
+    private RedisConnector connected() {
+        RedisConnector delegate = this.delegate;
+        if (delegate == null) {
+            throw new CircuitBreakerOpenException(HybridCacheTier.REDIS);
+        }
+        return delegate;
+    }
+
+    /**
+     * 执行一次健康检查，未连接时在执行器上重新连接，断路器打开了足够长的时间时发送 {@code PING}。
+     */
+    private void checkHealth() {
+        if (this.closed || !this.checking.compareAndSet(false, true)) {
+            return;
+        }
+
+        RedisConnector delegate = this.delegate;
+        if (delegate == null) {
+            try {
+                this.executor.execute(() -> {
+                    try {
+                        this.tryConnect();
+                    } finally {
+                        this.checking.set(false);
+                    }
+                });
+            } catch (Exception e) {
+                this.checking.set(false);
+            }
+            return;
+        }
+
+        if (!this.circuitBreaker.isProbeDue()) {
+            this.checking.set(false);
+            return;
+        }
+
+        CompletableFuture<Void> future;
+        try {
+            future = delegate.ping();
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((reply, e) -> {
+            if (e == null) {
+                this.circuitBreaker.onProbeSuccess();
+            } else {
+                this.circuitBreaker.onProbeFailure();
+            }
+            this.checking.set(false);
+        });
+    }
+
+    /**
+     * 尝试连接到 Redis，成功时执行连接建立后的回调。
+     */
+    private void tryConnect() {
+        RedisConnector delegate;
+        try {
+            delegate = this.connect.get();
+        } catch (Exception e) {
+            return;
+        }
+
+        synchronized (this) {
+            if (this.closed) {
+                delegate.close();
+                return;
+            }
+            this.delegate = delegate;
+        }
+
+        try {
+            this.onConnected.accept(this);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+}
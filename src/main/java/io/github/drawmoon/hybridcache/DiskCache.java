@@ -0,0 +1,348 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import com.aventrix.jnanoid.jnanoid.NanoIdUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.github.drawmoon.hybridcache.utils.HashUtils;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 一个本地磁盘缓存，每个缓存项的值存储在一个单独的文件中。
+ * <p>
+ * 磁盘缓存不在重新启动之间保留：停止期间其他节点对 Redis 或分布式对象存储的更新和移除无法得知，
+ * 继续使用上次运行时的文件可能读取到过时的值。每个实例在目录下创建一个随机命名的子目录存放本次运行的文件，
+ * 启动时在后台删除上次运行留下的文件，关闭时删除本次运行的文件。
+ * <p>
+ * 文件按键的 SHA-256 摘要分为两级目录，文件名带有随机后缀，因此覆盖一个键时写入新的文件，
+ * 旧文件在索引中被替换后删除，读取者不会看到写入一半的值。
+ * <p>
+ * 内存中的 Caffeine 索引记录每个键对应的文件，负责过期和按字节数淘汰，缓存项被移除时删除其文件，
+ * 并定期整理，删除不再被索引引用的文件。
+ */
+final class DiskCache {
+    // 缓存项文件的扩展名。
+    private static final String SUFFIX = ".entry";
+    // 整理时不删除最近修改的文件，避免删除正在写入的文件。
+    private static final long ORPHAN_GRACE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    // 配置的磁盘缓存目录。
+    private final Path root;
+    // 存放本次运行的缓存项的目录。
+    private final Path directory;
+    // 键到缓存项文件的索引。
+    private final Cache<String, Entry> index;
+    // 定期整理的任务。
+    private final ScheduledFuture<?> compaction;
+    // 记录淘汰和错误的记录器。
+    private final MetricsRecorder metricsRecorder;
+
+    /**
+     * 创建一个新的磁盘缓存实例，并在后台删除上次运行留下的文件。
+     * @param options 磁盘缓存选项。
+     * @param executor 用于删除文件的执行器。
+     * @param scheduler 用于定期整理的调度器。
+     * @param metricsRecorder 记录淘汰和错误的记录器。
+     */
+    DiskCache(
+            DiskCacheOptions options,
+            Executor executor,
+            ScheduledExecutorService scheduler,
+            MetricsRecorder metricsRecorder) {
+        this.root = Paths.get(options.getDirectory());
+        this.directory = this.root.resolve(NanoIdUtils.randomNanoId());
+        this.metricsRecorder = metricsRecorder;
+        this.index = Caffeine.newBuilder()
+                .maximumWeight(options.getMaxBytes())
+                .weigher((String key, Entry entry) -> entry.length)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.timeToLive();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.timeToLive();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(executor)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        deleteQuietly(entry.path);
+                    }
+                    if (cause.wasEvicted()) {
+                        metricsRecorder.recordEviction(HybridCacheTier.DISK);
+                    }
+                })
+                .build();
+
+        executor.execute(this::purge);
+
+        long interval = options.getCompactionInterval().toMillis();
+        this.compaction = scheduler.scheduleWithFixedDelay(
+                () -> executor.execute(this::compact), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 判断磁盘缓存中是否可能存在给定键的值，不会读取文件。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 如果索引中存在该键，则返回 {@code true}。
+     */
+    boolean contains(String key) {
+        return this.index.getIfPresent(key) != null;
+    }
+
+    /**
+     * 获取一个具有给定键的值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 所处位置的值或 {@code null}。
+     */
+    byte[] get(String key) {
+        Entry entry = this.index.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(entry.path, StandardOpenOption.READ)) {
+            byte[] bytes = new byte[entry.length];
+            readFully(channel, ByteBuffer.wrap(bytes), 0);
+            return bytes;
+        } catch (IOException e) {
+            // 文件已被删除或损坏
+            this.metricsRecorder.recordError(HybridCacheTier.DISK, e);
+            this.index.asMap().remove(key, entry);
+        }
+
+        return null;
+    }
+
+    /**
+     * 获取一个具有给定键的值的剩余过期时间。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 剩余过期时间，如果未找到该值则返回 {@code null}。
+     */
+    Duration getTimeToLive(String key) {
+        Entry entry = this.index.getIfPresent(key);
+        return entry != null ? Duration.ofNanos(entry.timeToLive()) : null;
+    }
+
+    /**
+     * 用给定的键设置一个值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @param expiration 值的过期时间。
+     */
+    void put(String key, byte[] value, Duration expiration) {
+        if (expiration.isZero() || expiration.isNegative()) {
+            this.index.invalidate(key);
+            return;
+        }
+
+        String hash = HashUtils.sha256Hex(key);
+        Path path = this.directory
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash + "." + NanoIdUtils.randomNanoId() + SUFFIX);
+        long expiresAt = System.currentTimeMillis() + expiration.toMillis();
+
+        try {
+            Files.createDirectories(path.getParent());
+            try (FileChannel channel =
+                    FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer body = ByteBuffer.wrap(value);
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+            }
+        } catch (IOException e) {
+            this.metricsRecorder.recordError(HybridCacheTier.DISK, e);
+            deleteQuietly(path);
+            this.index.invalidate(key);
+            return;
+        }
+
+        this.index.put(key, new Entry(path, value.length, expiresAt));
+    }
+
+    /**
+     * 根据键值移除缓存中的一个值（如果有的话）。
+     * @param key 一个字符串，用于识别所处位置的值。
+     */
+    void invalidate(String key) {
+        this.index.invalidate(key);
+    }
+
+    /**
+     * 移除所有的缓存项。
+     */
+    void invalidateAll() {
+        this.index.invalidateAll();
+    }
+
+    /**
+     * 停止定期整理，并删除本次运行的所有文件。
+     */
+    void close() {
+        this.compaction.cancel(false);
+        this.index.invalidateAll();
+        deleteTree(this.directory, path -> true);
+    }
+
+    /**
+     * 删除目录中上次运行留下的缓存项文件和空目录，不删除本次运行的目录。
+     */
+    private void purge() {
+        List<Path> children;
+        try (Stream<Path> paths = Files.list(this.root)) {
+            children = paths.filter(path -> !path.equals(this.directory)).collect(Collectors.toList());
+        } catch (Exception e) {
+            return;
+        }
+
+        children.forEach(
+                child -> deleteTree(child, path -> path.getFileName().toString().endsWith(SUFFIX)));
+    }
+
+    /**
+     * 清理过期的缓存项，并删除不再被索引引用的文件。
+     */
+    private void compact() {
+        this.index.cleanUp();
+        if (!Files.isDirectory(this.directory)) {
+            return;
+        }
+
+        Set<Path> live =
+                this.index.asMap().values().stream().map(entry -> entry.path).collect(Collectors.toSet());
+        long cutoff = System.currentTimeMillis() - ORPHAN_GRACE_MILLIS;
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(path -> !live.contains(path) && lastModified(path) < cutoff)
+                    .forEach(DiskCache::deleteQuietly);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            position += count;
+        }
+    }
+
+    /**
+     * 删除一个目录中满足条件的文件，以及删除后为空的目录。
+     * @param start 要删除的目录或文件。
+     * @param filter 判断一个文件是否应该删除。
+     */
+    private static void deleteTree(Path start, Predicate<Path> filter) {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(start)) {
+            // 先删除文件，再由深到浅删除目录
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        } catch (Exception e) {
+            return;
+        }
+
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // 目录不为空
+                }
+            } else if (filter.test(path)) {
+                deleteQuietly(path);
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * 表示索引中的一个缓存项。
+     */
+    private static final class Entry {
+        // 缓存项的文件。
+        final Path path;
+        // 值的字节数。
+        final int length;
+        // 过期时间，以 Unix 毫秒表示。
+        final long expiresAt;
+
+        Entry(Path path, int length, long expiresAt) {
+            this.path = path;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * 获取剩余的过期时间。
+         * @return 剩余的过期时间，以纳秒为单位。
+         */
+        long timeToLive() {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, this.expiresAt - System.currentTimeMillis()));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 本地磁盘缓存选项。
+ */
+public class DiskCacheOptions {
+    /**
+     * 用于存储缓存项的目录，未指定时不启用磁盘缓存。
+     * <p>
+     * 同一个目录只能由一个 {@link HybridCache} 实例使用。磁盘缓存不在重新启动之间保留，停止期间其他节点可能更新或移除了
+     * 其中的值，因此关闭时删除缓存项的文件，启动时删除上次异常退出后留下的文件。
+     */
+    @Getter
+    @Setter
+    private String directory;
+
+    /**
+     * 磁盘缓存可以占用的最大字节数，超过时按 W-TinyLFU 策略淘汰缓存项。
+     */
+    @Getter
+    @Setter
+    private long maxBytes = 1024L * 1024 * 1024;
+
+    /**
+     * 连续两次整理之间的时间间隔，整理时清理过期的缓存项和不再被索引引用的文件。
+     */
+    @Getter
+    @Setter
+    private Duration compactionInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.github.drawmoon.hybridcache.utils.FrequencySketch;
+
+/**
+ * 一个在键的估计访问频率达到给定阈值后提升的策略。
+ * <p>
+ * 访问频率由一个会定期衰减的 Count-Min Sketch 估计，内存占用与键的数量无关。
+ */
+public class FrequencyPromotionPolicy implements PromotionPolicy {
+    // 提升需要的估计访问频率。
+    private final int threshold;
+    // 用于估计访问频率的 Count-Min Sketch。
+    private final FrequencySketch sketch;
+
+    /**
+     * 创建一个新的策略实例。
+     * @param threshold 提升需要的估计访问频率。
+     */
+    public FrequencyPromotionPolicy(int threshold) {
+        this(threshold, 65_536);
+    }
+
+    /**
+     * 创建一个新的策略实例。
+     * @param threshold 提升需要的估计访问频率。
+     * @param expectedKeys 预期的不同键的数量，用于确定 Sketch 的宽度。
+     */
+    public FrequencyPromotionPolicy(int threshold, int expectedKeys) {
+        this.threshold = threshold;
+        this.sketch = new FrequencySketch(expectedKeys);
+    }
+
+    @Override
+    public boolean shouldPromote(String key) {
+        return this.sketch.increment(key) >= this.threshold;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个在键于内存缓存之外命中给定次数后提升的策略。
+ * <p>
+ * 命中次数记录在一个有界的缓存中，长时间未命中的键的计数会被丢弃。
+ */
+public class HitCountPromotionPolicy implements PromotionPolicy {
+    // 提升前需要的命中次数。
+    private final int hits;
+    // 键的命中次数。
+    private final Cache<String, AtomicInteger> counters;
+
+    /**
+     * 创建一个新的策略实例。
+     * @param hits 提升前需要的命中次数。
+     */
+    public HitCountPromotionPolicy(int hits) {
+        this(hits, 100_000, Duration.ofMinutes(10));
+    }
+
+    /**
+     * 创建一个新的策略实例。
+     * @param hits 提升前需要的命中次数。
+     * @param maximumKeys 记录命中次数的键的最大数量。
+     * @param window 键的命中次数在最后一次命中后保留的时间。
+     */
+    public HitCountPromotionPolicy(int hits, long maximumKeys, Duration window) {
+        this.hits = hits;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(window)
+                .build();
+    }
+
+    @Override
+    public boolean shouldPromote(String key) {
+        if (this.hits <= 1) {
+            return true;
+        }
+
+        AtomicInteger counter = this.counters.get(key, k -> new AtomicInteger());
+        if (counter.incrementAndGet() < this.hits) {
+            return false;
+        }
+
+        this.counters.invalidate(key);
+        return true;
+    }
+}
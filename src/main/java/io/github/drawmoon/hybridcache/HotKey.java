@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+/**
+ * 一个热点键及其估计访问频率。
+ */
+public final class HotKey {
+    // 热点键。
+    private final String key;
+    // 估计访问频率。
+    private final int frequency;
+
+    /**
+     * 创建一个新的热点键实例。
+     * @param key 热点键。
+     * @param frequency 估计访问频率。
+     */
+    HotKey(String key, int frequency) {
+        this.key = key;
+        this.frequency = frequency;
+    }
+
+    /**
+     * 获取热点键。
+     * @return 热点键。
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * 获取估计访问频率，该频率会随时间衰减。
+     * @return 估计访问频率。
+     */
+    public int getFrequency() {
+        return this.frequency;
+    }
+
+    @Override
+    public String toString() {
+        return this.key + "=" + this.frequency;
+    }
+}
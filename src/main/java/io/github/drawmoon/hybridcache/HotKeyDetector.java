@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.github.drawmoon.hybridcache.utils.FrequencySketch;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个检测热点键的检测器。
+ * <p>
+ * 访问频率由一个会定期衰减的 Count-Min Sketch 估计，频率达到阈值的键记录在一个最多包含 K 个键的集合中，
+ * 集合已满时移除频率最低的键。只有热点键的访问需要加锁，其余访问的开销与 {@link FrequencyPromotionPolicy} 相同。
+ */
+final class HotKeyDetector {
+    // 判定为热点键需要的估计访问频率。
+    private final int threshold;
+    // 保留的最多热点键的数量。
+    private final int topK;
+    // 用于估计访问频率的 Count-Min Sketch。
+    private final FrequencySketch sketch;
+    // 热点键及其最近一次访问时的估计访问频率。
+    private final Map<String, Integer> hotKeys = new HashMap<>();
+
+    /**
+     * 创建一个新的检测器实例。
+     * @param options 热点键选项。
+     */
+    HotKeyDetector(HotKeyOptions options) {
+        this.threshold = options.getThreshold();
+        this.topK = Math.max(1, options.getTopK());
+        this.sketch = new FrequencySketch(options.getExpectedKeys());
+    }
+
+    /**
+     * 记录一次对给定键的访问。
+     * @param key 被访问的键。
+     * @return 给定键是否为热点键。
+     */
+    boolean record(String key) {
+        int frequency = this.sketch.increment(key);
+        if (frequency < this.threshold) {
+            return false;
+        }
+
+        synchronized (this.hotKeys) {
+            this.hotKeys.put(key, frequency);
+            if (this.hotKeys.size() > this.topK) {
+                this.hotKeys.entrySet().stream()
+                        .min(Map.Entry.comparingByValue())
+                        .ifPresent(coldest -> this.hotKeys.remove(coldest.getKey()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取当前的热点键，按估计访问频率从高到低排列。
+     * <p>
+     * 频率已衰减到阈值以下的键不再视为热点键并被移除。
+     * @return 热点键的列表。
+     */
+    List<HotKey> getHotKeys() {
+        List<HotKey> result = new ArrayList<>();
+        synchronized (this.hotKeys) {
+            this.hotKeys.entrySet().removeIf(entry -> {
+                int frequency = this.sketch.frequency(entry.getKey());
+                if (frequency < this.threshold) {
+                    return true;
+                }
+
+                result.add(new HotKey(entry.getKey(), frequency));
+                return false;
+            });
+        }
+        result.sort(Comparator.comparingInt(HotKey::getFrequency).reversed());
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 热点键选项。
+ * <p>
+ * 启用后，从 Redis 读取的键的访问频率由一个 Count-Min Sketch 估计，频率达到阈值的键即使不满足
+ * {@link HybridCacheOptions#getPromotionPolicy()} 也会以较短的过期时间固定在内存缓存中，
+ * 避免少数键的大量读取集中到同一个 Redis 节点。
+ */
+public class HotKeyOptions {
+    /**
+     * 是否启用热点键检测。
+     * <p>
+     * 其他节点更新热点键后，当前节点在 {@link #getTimeToLive()} 内可能读取到旧值，因此默认不启用。
+     */
+    @Getter
+    @Setter
+    private boolean enabled;
+
+    /**
+     * 判定为热点键需要的估计访问频率。
+     */
+    @Getter
+    @Setter
+    private int threshold = 64;
+
+    /**
+     * 热点键在内存缓存中的过期时间，不超过其在 Redis 中的剩余过期时间。
+     */
+    @Getter
+    @Setter
+    private Duration timeToLive = Duration.ofSeconds(1);
+
+    /**
+     * 保留并通过 {@link HybridCache#getHotKeys()} 返回的最多热点键的数量。
+     */
+    @Getter
+    @Setter
+    private int topK = 16;
+
+    /**
+     * 预期的不同键的数量，用于确定 Sketch 的宽度。
+     */
+    @Getter
+    @Setter
+    private int expectedKeys = 16384;
+}
@@ -18,37 +18,120 @@
  */
 package io.github.drawmoon.hybridcache;
 
+import com.aventrix.jnanoid.jnanoid.NanoIdUtils;
 import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import io.github.drawmoon.hybridcache.utils.TypeUtils;
-import io.lettuce.core.RedisClient;
-import io.lettuce.core.RedisFuture;
+import io.github.drawmoon.hybridcache.utils.NamedThreadFactory;
+import io.github.drawmoon.hybridcache.utils.ValueEnvelope;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.SetArgs;
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.async.RedisAsyncCommands;
-import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * 一个混合缓存，它将数据存储在内存、磁盘、分布式对象存储和分布式缓存上。
  */
 public class HybridCache implements AutoCloseable {
-    // 用于在内存中存储数据的异步缓存对象。
-    private final AsyncCache<String, byte[]> memoryCache;
+    // Redis 锁的键后缀。
+    private static final String LOCK_SUFFIX = ":lock";
+    // 等待 Redis 锁时的重试间隔，以毫秒为单位。
+    private static final long LOCK_RETRY_INTERVAL = 50;
+    // 仅当锁仍由当前调用者持有时才删除的脚本。
+    private static final String UNLOCK_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
 
-    // Redis 客户端。
-    private RedisClient redisClient;
-    // Redis 连接。
-    private StatefulRedisConnection<byte[], byte[]> statefulRedisConnection;
-    // Redis 是可用的。
-    private boolean redisAvailable = false;
+    // 用于在内存中存储数据的缓存对象。
+    private final MemoryCache memoryCache;
+    // 内存缓存的快照文件的路径，未启用时为 {@code null}。
+    private Path snapshotPath;
+    // 快照中最多保存的缓存项的数量。
+    private int snapshotMaxEntries;
+    // 用于在本地磁盘中存储数据的缓存对象，未启用时为 {@code null}。
+    private DiskCache diskCache;
+    // 提升到本地磁盘缓存的值的默认和最长过期时间。
+    private final Duration defaultExpiration;
+    // 用于完成从 Redis 的提升的执行器，启用磁盘缓存时避免在 Redis 的 I/O 线程上写入文件。
+    private final Executor promotionExecutor;
+    // 决定是否将 Redis 或存储中命中的值提升到内存缓存中的策略。
+    private final PromotionPolicy promotionPolicy;
+    // 从 Redis 读取的键的热点检测器，未启用时为 {@code null}。
+    private HotKeyDetector hotKeyDetector;
+    // 热点键在内存缓存中的过期时间。
+    private final Duration hotKeyTimeToLive;
+    // 为自动放置的值选择层级的放置引擎，未启用时为 {@code null}。
+    private PlacementEngine placementEngine;
+    // 正在进行的提升的令牌，写入或移除一个键时撤销其令牌。
+    private final ConcurrentMap<String, Object> promotions = new ConcurrentHashMap<>();
+
+    // 管理 Redis 连接并分配命令的连接器，通过断路器保护，未配置 Redis 时为 null。
+    private CircuitBreakingRedisConnector redisConnector;
+
+    // 用于在对象和字节数组之间转换的序列化器。
+    private final Serializer serializer;
+
+    // 写入 Redis 或磁盘、分布式对象存储之前压缩值的方式。
+    private final CompressionCodec compressionCodec;
+    // 需要压缩的值的最小字节数。
+    private final int compressionThreshold;
+    // 压缩级别。
+    private final int compressionLevel;
+
+    // 在多个节点之间传播内存缓存失效的总线。
+    private volatile InvalidationBus invalidationBus;
 
     // 用于在磁盘或分布式对象存储的缓存对象。
     private HybridStore hybridStore;
 
+    // 延迟写入队列，未启用延迟写入时为 null。
+    private WriteBehindQueue writeBehindQueue;
+
+    // 正在进行的加载，用于合并同一个键的并发未命中。
+    private final AsyncCache<String, byte[]> loadings = Caffeine.newBuilder().buildAsync();
+    // 正在进行的重新加载，用于避免同一个键同时重新加载多次。
+    private final Set<String> reloads = ConcurrentHashMap.newKeySet();
+    // 是否通过 Redis 锁在多个节点之间合并加载。
+    private final boolean distributedLock;
+    // Redis 锁的超时时间。
+    private final Duration lockTimeout;
+
+    // 用于执行磁盘或分布式对象存储 I/O 的执行器。
+    private final Executor executor;
+    // 由混合缓存创建的线程池，在关闭时释放。
+    private ExecutorService ownedExecutor;
+    // 用于执行延迟任务的调度器。
+    private final ScheduledExecutorService scheduler;
+
+    // 记录各层级指标的记录器。
+    private final MetricsRecorder metricsRecorder;
+
     /**
      * 创建一个新的混合缓存实例。
      */
@@ -73,23 +156,74 @@ public class HybridCache implements AutoCloseable {
     /**
      * 创建一个新的混合缓存实例。
      * @param options 用于配置混合缓存。
+     * @throws IllegalArgumentException 在 {@link RedisTopology#CLUSTER} 中使用 {@link InvalidationMode#TRACKING} 模式时引发。
      */
     public HybridCache(HybridCacheOptions options) {
-        this.memoryCache = Caffeine.newBuilder()
-                .maximumSize(options.getSizeLimit())
-                .expireAfterWrite(options.getExpirationScanFrequency())
-                .buildAsync();
+        RedisCacheOptions redisCacheOptions = options.getRedisCacheOptions();
+        if (redisCacheOptions.getTopology() == RedisTopology.CLUSTER
+                && redisCacheOptions.getInvalidationMode() == InvalidationMode.TRACKING) {
+            // 集群的连接不是单个节点的连接，无法开启跟踪
+            throw new IllegalArgumentException("Invalidation mode TRACKING is not supported with the CLUSTER topology");
+        }
 
-        try {
-            RedisCacheOptions redisCacheOptions = options.getRedisCacheOptions();
-            this.redisClient = RedisClient.create("redis://" + redisCacheOptions.getConfiguration());
-            this.statefulRedisConnection = redisClient.connect(new ByteArrayCodec());
-            this.redisAvailable = this.statefulRedisConnection.isOpen();
-        } catch (Exception e) {
-            // ignore
+        if (options.getExecutor() != null) {
+            this.executor = options.getExecutor();
+        } else {
+            int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+            this.ownedExecutor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("hybridcache-store"));
+            this.executor = this.ownedExecutor;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("hybridcache-scheduler"));
+        this.metricsRecorder = options.getMetricsRecorder();
+
+        this.memoryCache = new MemoryCache(options);
+        this.defaultExpiration = options.getExpirationScanFrequency();
+        if (StringUtils.isNotBlank(options.getDiskCacheOptions().getDirectory())) {
+            this.diskCache =
+                    new DiskCache(options.getDiskCacheOptions(), this.executor, this.scheduler, this.metricsRecorder);
+        }
+        this.promotionExecutor = this.diskCache != null ? this.executor : Runnable::run;
+        this.serializer = options.getSerializer();
+        this.compressionCodec = options.getCompressionCodec();
+        this.compressionThreshold = options.getCompressionThreshold();
+        this.compressionLevel = options.getCompressionLevel();
+        this.promotionPolicy = options.getPromotionPolicy();
+        if (options.getHotKeyOptions().isEnabled()) {
+            this.hotKeyDetector = new HotKeyDetector(options.getHotKeyOptions());
+        }
+        this.hotKeyTimeToLive = options.getHotKeyOptions().getTimeToLive();
+        if (options.getPlacementOptions().isEnabled()) {
+            this.placementEngine = new PlacementEngine(options.getPlacementOptions());
+        }
+
+        this.distributedLock = redisCacheOptions.isDistributedLock();
+        this.lockTimeout = redisCacheOptions.getLockTimeout();
+
+        if (redisCacheOptions.getConfiguration() != null) {
+            this.redisConnector = new CircuitBreakingRedisConnector(
+                    redisCacheOptions,
+                    this.scheduler,
+                    this.executor,
+                    connector -> this.onRedisConnected(connector, redisCacheOptions));
         }
 
-        this.hybridStore = new HybridStore(options.getHybridStoreOption());
+        this.hybridStore = new HybridStore(options.getHybridStoreOption(), this.metricsRecorder);
+        if (StringUtils.isNotBlank(options.getSnapshotPath())) {
+            Path snapshotPath = Paths.get(options.getSnapshotPath());
+            if (this.redisConnector != null || this.hybridStore.isDistributed()) {
+                // 停止期间其他节点的更新和移除无法得知，不再使用上次运行时保存的值
+                this.deleteSnapshot(snapshotPath);
+            } else {
+                this.snapshotPath = snapshotPath;
+                this.snapshotMaxEntries = options.getSnapshotMaxEntries();
+                this.loadSnapshot();
+            }
+        }
+
+        if (options.getWriteBehindOptions().isEnabled()) {
+            this.writeBehindQueue = new WriteBehindQueue(
+                    options.getWriteBehindOptions(), this::writeBehind, this.executor, this.scheduler);
+        }
     }
 
     /**
@@ -98,36 +232,246 @@ public class HybridCache implements AutoCloseable {
      * @return 所处位置的值或 {@code null}。
      */
     public byte[] get(String key) {
-        CompletableFuture<byte[]> completableFuture = this.memoryCache.getIfPresent(key);
-        if (completableFuture != null) {
-            return completableFuture.join();
+        return this.getAsync(key).join();
+    }
+
+    /**
+     * 获取一个具有给定键的值。
+     * @param <T> 要返回的值的类型。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param clazz 要返回的值的类型。
+     * @return 所处位置的值或 {@code null}。
+     */
+    public <T> T get(String key, Class<T> clazz) {
+        byte[] bytes = get(key);
+        return bytes != null ? this.convertFromBytes(bytes, clazz) : null;
+    }
+
+    /**
+     * 异步获取一个具有给定键的值。
+     * <p>
+     * 依次查找内存、本地磁盘缓存、Redis 和磁盘或分布式对象存储，调用线程不会因为 Redis 或存储的延迟而阻塞，
+     * 磁盘和存储的 I/O 在 {@link HybridCacheOptions#getExecutor()} 上执行。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在查找完成时返回所处位置的值或 {@code null} 的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<byte[]> getAsync(String key) {
+        long start = System.nanoTime();
+        byte[] value = this.memoryCache.get(key);
+        this.recordGet(HybridCacheTier.MEMORY, start, value);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
         }
 
-        if (redisAvailable) {
-            RedisFuture<byte[]> redisFuture =
-                    this.statefulRedisConnection.async().get(key.getBytes(StandardCharsets.UTF_8));
-            if (redisFuture != null) {
-                try {
-                    return redisFuture.get();
-                } catch (Exception e) {
-                    // ignore
-                }
+        if (this.diskCache != null) {
+            if (this.diskCache.contains(key)) {
+                return this.getFromDisk(key)
+                        .thenCompose(bytes -> bytes != null
+                                ? CompletableFuture.completedFuture(bytes)
+                                : this.getFromRedisOrStore(key));
             }
+            this.metricsRecorder.recordMiss(HybridCacheTier.DISK);
         }
 
-        return this.hybridStore.get(key);
+        return this.getFromRedisOrStore(key);
     }
 
     /**
-     * 获取一个具有给定键的值。
+     * 异步从 Redis 中获取一个具有给定键的值，如果 Redis 不可用，则从磁盘或分布式对象存储中获取。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在查找完成时返回所处位置的值或 {@code null} 的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<byte[]> getFromRedisOrStore(String key) {
+        if (this.writeBehindQueue != null) {
+            // 值可能已被移出内存缓存，但还没有写入 Redis 或存储
+            byte[] queued = this.writeBehindQueue.peek(key);
+            if (queued != null) {
+                return CompletableFuture.completedFuture(queued);
+            }
+        }
+
+        if (this.placementEngine != null) {
+            this.placementEngine.record(key);
+        }
+        if (this.redisAvailable()) {
+            Object token = this.beginPromotion(key);
+            long start = System.nanoTime();
+            return this.redisConnector
+                    .execute(toRedisKey(key), RedisClusterAsyncCommands::get)
+                    .toCompletableFuture()
+                    .handle((bytes, e) -> {
+                        if (e != null) {
+                            this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                            this.promotions.remove(key, token);
+                            return this.getFromStore(key);
+                        }
+
+                        this.recordGet(HybridCacheTier.REDIS, start, bytes);
+                        ValueEnvelope envelope = ValueEnvelope.unwrap(bytes);
+                        this.slideInRedis(key, envelope);
+                        if (envelope != null && envelope.isPointer()) {
+                            // 值转移到了存储中，Redis 中只有指针
+                            this.promotions.remove(key, token);
+                            return this.getFromStore(key);
+                        }
+                        this.promoteFromRedis(key, envelope, token);
+                        return CompletableFuture.completedFuture(envelope != null ? envelope.getValue() : null);
+                    })
+                    .thenCompose(Function.identity());
+        }
+
+        return this.getFromStore(key);
+    }
+
+    /**
+     * 异步获取一个具有给定键的值。
      * @param <T> 要返回的值的类型。
      * @param key 一个字符串，用于识别所处位置的值。
      * @param clazz 要返回的值的类型。
+     * @return 一个在查找完成时返回所处位置的值或 {@code null} 的 {@link CompletableFuture}。
+     */
+    public <T> CompletableFuture<T> getAsync(String key, Class<T> clazz) {
+        return this.getAsync(key).thenApply(bytes -> bytes != null ? this.convertFromBytes(bytes, clazz) : null);
+    }
+
+    /**
+     * 获取一个具有给定键的值，如果缓存未命中，则调用加载函数获取值并写入缓存。
+     * @param <T> 要返回的值的类型。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param clazz 要返回的值的类型。
+     * @param loader 用于在缓存未命中时加载值的函数，返回 {@code null} 时不写入缓存。
      * @return 所处位置的值或 {@code null}。
      */
-    public <T> T get(String key, Class<T> clazz) {
-        byte[] bytes = get(key);
-        return bytes != null ? this.convertFromBytes(bytes, clazz) : null;
+    public <T> T get(String key, Class<T> clazz, Function<String, T> loader) {
+        return this.get(key, clazz, loader, new HybridCacheEntryOptions());
+    }
+
+    /**
+     * 获取一个具有给定键的值，如果缓存未命中，则调用加载函数获取值并写入缓存。
+     * @param <T> 要返回的值的类型。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param clazz 要返回的值的类型。
+     * @param loader 用于在缓存未命中时加载值的函数，返回 {@code null} 时不写入缓存。
+     * @param entryOptions 值的缓存选项。
+     * @return 所处位置的值或 {@code null}。
+     */
+    public <T> T get(String key, Class<T> clazz, Function<String, T> loader, HybridCacheEntryOptions entryOptions) {
+        return this.getAsync(key, clazz, loader, entryOptions).join();
+    }
+
+    /**
+     * 异步获取一个具有给定键的值，如果缓存未命中，则调用加载函数获取值并写入缓存。
+     * <p>
+     * 同一个键的并发未命中会合并为一次加载，所有等待者得到相同的结果。如果启用了
+     * {@link RedisCacheOptions#isDistributedLock()}，还会通过 Redis 锁在多个节点之间合并加载。
+     * @param <T> 要返回的值的类型。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param clazz 要返回的值的类型。
+     * @param loader 用于在缓存未命中时加载值的函数，返回 {@code null} 时不写入缓存。
+     * @param entryOptions 值的缓存选项。
+     * @return 一个在查找或加载完成时返回所处位置的值或 {@code null} 的 {@link CompletableFuture}。
+     */
+    public <T> CompletableFuture<T> getAsync(
+            String key, Class<T> clazz, Function<String, T> loader, HybridCacheEntryOptions entryOptions) {
+        byte[] value = this.memoryCache.get(key);
+        if (value != null) {
+            this.refreshAhead(key, loader, entryOptions, this.memoryCache.getTimeToLive(key));
+            return CompletableFuture.completedFuture(this.convertFromBytes(value, clazz));
+        }
+
+        CompletableFuture<byte[]> completableFuture =
+                this.loadings.get(key, (k, executor) -> this.getAsync(k).thenCompose(bytes -> {
+                    if (bytes != null) {
+                        this.refreshAhead(k, loader, entryOptions, null);
+                        return CompletableFuture.completedFuture(bytes);
+                    }
+                    return this.distributedLock && this.redisAvailable()
+                            ? this.loadWithLock(k, loader, entryOptions)
+                            : this.loadAndSet(k, loader, entryOptions);
+                }));
+
+        completableFuture.whenComplete((bytes, e) -> this.loadings.asMap().remove(key, completableFuture));
+
+        return completableFuture.thenApply(bytes -> bytes != null ? this.convertFromBytes(bytes, clazz) : null);
+    }
+
+    /**
+     * 获取多个具有给定键的值。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     * @return 键与所处位置的值的映射，不包含未找到的键。
+     */
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        return this.getAllAsync(keys).join();
+    }
+
+    /**
+     * 获取多个具有给定键的值。
+     * @param <T> 要返回的值的类型。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     * @param clazz 要返回的值的类型。
+     * @return 键与所处位置的值的映射，不包含未找到的键。
+     */
+    public <T> Map<String, T> getAll(Collection<String> keys, Class<T> clazz) {
+        return this.getAllAsync(keys, clazz).join();
+    }
+
+    /**
+     * 异步获取多个具有给定键的值。
+     * <p>
+     * 首先从内存中获取，剩余的键通过一次 MGET 从 Redis 中获取，如果 Redis 不可用，
+     * 则在执行器上并行地从磁盘或分布式对象存储中获取。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     * @return 一个在查找完成时返回键与所处位置的值的映射的 {@link CompletableFuture}，不包含未找到的键。
+     */
+    public CompletableFuture<Map<String, byte[]>> getAllAsync(Collection<String> keys) {
+        Set<String> distinctKeys = new LinkedHashSet<>(keys);
+        Map<String, byte[]> memoryHits = new HashMap<>();
+        List<String> missingKeys = new ArrayList<>();
+        for (String key : distinctKeys) {
+            long start = System.nanoTime();
+            byte[] value = this.memoryCache.get(key);
+            this.recordGet(HybridCacheTier.MEMORY, start, value);
+            if (value != null) {
+                memoryHits.put(key, value);
+            } else {
+                missingKeys.add(key);
+            }
+        }
+
+        CompletableFuture<Map<String, byte[]>> lowerTiers;
+        if (missingKeys.isEmpty()) {
+            lowerTiers = CompletableFuture.completedFuture(Collections.emptyMap());
+        } else if (this.diskCache != null) {
+            lowerTiers = this.getAllFromDisk(missingKeys);
+        } else {
+            lowerTiers = this.getAllFromRedisOrStore(missingKeys);
+        }
+
+        return lowerTiers.thenApply(found -> {
+            Map<String, byte[]> values = new LinkedHashMap<>();
+            for (String key : distinctKeys) {
+                byte[] bytes = memoryHits.containsKey(key) ? memoryHits.get(key) : found.get(key);
+                if (bytes != null) {
+                    values.put(key, bytes);
+                }
+            }
+            return values;
+        });
+    }
+
+    /**
+     * 异步获取多个具有给定键的值。
+     * @param <T> 要返回的值的类型。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     * @param clazz 要返回的值的类型。
+     * @return 一个在查找完成时返回键与所处位置的值的映射的 {@link CompletableFuture}，不包含未找到的键。
+     */
+    public <T> CompletableFuture<Map<String, T>> getAllAsync(Collection<String> keys, Class<T> clazz) {
+        return this.getAllAsync(keys).thenApply(values -> {
+            Map<String, T> result = new LinkedHashMap<>();
+            values.forEach((key, bytes) -> result.put(key, this.convertFromBytes(bytes, clazz)));
+            return result;
+        });
     }
 
     /**
@@ -146,12 +490,7 @@ public class HybridCache implements AutoCloseable {
      * @param entryOptionsAction 值的缓存选项。
      */
     public void set(String key, Object value, Consumer<HybridCacheEntryOptions> entryOptionsAction) {
-        HybridCacheEntryOptions entryOptions = new HybridCacheEntryOptions();
-        if (entryOptionsAction != null) {
-            entryOptionsAction.accept(entryOptions);
-        }
-
-        this.set(key, value, entryOptions);
+        this.set(key, value, this.createEntryOptions(entryOptionsAction));
     }
 
     /**
@@ -161,23 +500,135 @@ public class HybridCache implements AutoCloseable {
      * @param entryOptions 值的缓存选项。
      */
     public void set(String key, Object value, HybridCacheEntryOptions entryOptions) {
+        this.setAsync(key, value, entryOptions).join();
+    }
+
+    /**
+     * 异步用给定的键设置一个值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @return 一个在值写入完成时结束的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<Void> setAsync(String key, Object value) {
+        return this.setAsync(key, value, new HybridCacheEntryOptions());
+    }
+
+    /**
+     * 异步用给定的键设置一个值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @param entryOptionsAction 值的缓存选项。
+     * @return 一个在值写入完成时结束的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<Void> setAsync(
+            String key, Object value, Consumer<HybridCacheEntryOptions> entryOptionsAction) {
+        return this.setAsync(key, value, this.createEntryOptions(entryOptionsAction));
+    }
+
+    /**
+     * 异步用给定的键设置一个值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @param entryOptions 值的缓存选项。
+     * @return 一个在值写入完成时结束的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<Void> setAsync(String key, Object value, HybridCacheEntryOptions entryOptions) {
         byte[] bytes = convertToBytes(value);
 
-        HybridCachePlace place = whereToStore(value, entryOptions);
+        HybridCachePlace place = whereToStore(value, bytes, entryOptions);
         assert !place.equals(HybridCachePlace.AUTO);
 
-        if (place.equals(HybridCachePlace.DISTRIBUTED)) {
-            if (redisAvailable) {
-                RedisAsyncCommands<byte[], byte[]> asyncCommands = this.statefulRedisConnection.async();
-                SetArgs setArgs = SetArgs.Builder.ex(entryOptions.getAbsoluteExpiration());
-                asyncCommands.set(key.getBytes(StandardCharsets.UTF_8), bytes, setArgs);
-                return;
+        return this.setBytesAsync(key, bytes, place, entryOptions);
+    }
+
+    /**
+     * 用给定的键设置多个值。
+     * @param values 键与缓存中要设置的值的映射。
+     */
+    public void setAll(Map<String, ?> values) {
+        this.setAll(values, new HybridCacheEntryOptions());
+    }
+
+    /**
+     * 用给定的键设置多个值。
+     * @param values 键与缓存中要设置的值的映射。
+     * @param entryOptions 值的缓存选项。
+     */
+    public void setAll(Map<String, ?> values, HybridCacheEntryOptions entryOptions) {
+        this.setAllAsync(values, entryOptions).join();
+    }
+
+    /**
+     * 异步用给定的键设置多个值。
+     * <p>
+     * 写入 Redis 的命令通过管道合并为一次发送，如果 Redis 不可用，则在执行器上并行地写入磁盘或分布式对象存储。
+     * @param values 键与缓存中要设置的值的映射。
+     * @param entryOptions 值的缓存选项。
+     * @return 一个在所有值写入完成时结束的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<Void> setAllAsync(Map<String, ?> values, HybridCacheEntryOptions entryOptions) {
+        boolean redisAvailable = this.redisAvailable();
+        Map<String, byte[]> distributedValues = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> stored = new ArrayList<>();
+        values.forEach((key, value) -> {
+            this.promotions.remove(key);
+            this.invalidateDisk(key);
+
+            byte[] bytes = convertToBytes(value);
+
+            HybridCachePlace place = whereToStore(value, bytes, entryOptions);
+            assert !place.equals(HybridCachePlace.AUTO);
+
+            if (place.equals(HybridCachePlace.DISTRIBUTED)) {
+                if (this.writeBehindQueue != null && this.writeBehindQueue.offer(key, bytes, entryOptions)) {
+                    this.putMemory(key, bytes, entryOptions);
+                    return;
+                }
+
+                if (redisAvailable) {
+                    boolean local = this.keepsLocal(key, bytes, entryOptions);
+                    distributedValues.put(key, this.encodeForRedis(key, bytes, entryOptions, stored));
+                    if (!local) {
+                        this.memoryCache.invalidate(key);
+                        return;
+                    }
+                } else {
+                    distributedValues.put(key, this.encode(bytes, entryOptions, true));
+                }
             }
 
-            this.hybridStore.put(key, bytes, "hybridcache");
+            this.putMemory(key, bytes, entryOptions);
+        });
+
+        if (distributedValues.isEmpty()) {
+            this.publishInvalidation(values.keySet());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (redisAvailable) {
+            SetArgs setArgs = setArgs(entryOptions);
+            List<KeyValue<byte[], byte[]>> entries = new ArrayList<>(distributedValues.size());
+            distributedValues.forEach((key, bytes) -> entries.add(KeyValue.just(toRedisKey(key), bytes)));
+            long start = System.nanoTime();
+            return allOf(stored)
+                    .thenCompose(v -> this.redisConnector.setAll(entries, setArgs))
+                    .handle((result, e) -> {
+                        if (e != null) {
+                            this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                        } else {
+                            long length = distributedValues.values().stream()
+                                    .mapToLong(bytes -> bytes.length)
+                                    .sum();
+                            this.recordSet(HybridCacheTier.REDIS, start, length);
+                        }
+                        this.publishInvalidation(values.keySet());
+                        return null;
+                    });
         }
 
-        this.memoryCache.put(key, CompletableFuture.completedFuture(bytes));
+        distributedValues.forEach(
+                (key, bytes) -> stored.add(CompletableFuture.runAsync(() -> this.putStore(key, bytes), this.executor)));
+        return allOf(stored);
     }
 
     /**
@@ -185,14 +636,60 @@ public class HybridCache implements AutoCloseable {
      * @param key 一个字符串，用于识别所处位置的值。
      */
     public void refresh(String key) {
-        if (this.memoryCache.synchronous().getIfPresent(key) != null) {
-            return;
-        }
+        this.refreshAsync(key).join();
+    }
 
-        if (redisAvailable) {
-            RedisAsyncCommands<byte[], byte[]> asyncCommands = this.statefulRedisConnection.async();
-            asyncCommands.expire(key.getBytes(StandardCharsets.UTF_8), 60);
+    /**
+     * 异步根据键值刷新缓存中的一个值，在内存缓存、Redis 或磁盘、分布式对象存储中重新设置其滑动过期时间（如果有的话）。
+     * <p>
+     * 滑动过期时间延长后不超过值的绝对过期时间，没有设置滑动过期时间的值保持不变。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在刷新完成时结束的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<Void> refreshAsync(String key) {
+        this.memoryCache.touch(key);
+
+        if (this.redisAvailable()) {
+            return this.redisConnector
+                    .execute(toRedisKey(key), RedisClusterAsyncCommands::get)
+                    .toCompletableFuture()
+                    .handle((bytes, e) -> {
+                        if (e != null) {
+                            this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+
+                        ValueEnvelope envelope = ValueEnvelope.unwrap(bytes);
+                        this.slideInRedis(key, envelope);
+                        // 转移到存储中的值同时延长存储中的过期时间
+                        return envelope != null && envelope.isPointer()
+                                ? this.refreshInStore(key)
+                                : CompletableFuture.<Void>completedFuture(null);
+                    })
+                    .thenCompose(Function.identity());
         }
+
+        return this.refreshInStore(key);
+    }
+
+    /**
+     * 在执行器上重新设置磁盘或分布式对象存储中一个值的滑动过期时间（如果有的话）。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在刷新完成时结束的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Void> refreshInStore(String key) {
+        return CompletableFuture.runAsync(
+                () -> {
+                    Object token = this.beginPromotion(key);
+                    ValueEnvelope envelope = ValueEnvelope.unwrap(this.hybridStore.getEntry(key));
+                    long now = System.currentTimeMillis();
+                    if (envelope != null && !envelope.isExpired(now) && envelope.getSlidingExpiration() > 0) {
+                        this.completePromotion(key, token, () -> this.slideInStore(key, envelope, now, true));
+                    } else {
+                        this.promotions.remove(key, token);
+                    }
+                },
+                this.executor);
     }
 
     /**
@@ -200,72 +697,1361 @@ public class HybridCache implements AutoCloseable {
      * @param key 一个字符串，用于识别所处位置的值。
      */
     public void remove(String key) {
-        this.memoryCache.synchronous().invalidate(key);
+        this.removeAsync(key).join();
+    }
 
-        if (redisAvailable) {
-            RedisAsyncCommands<byte[], byte[]> asyncCommands = this.statefulRedisConnection.async();
-            asyncCommands.del(key.getBytes(StandardCharsets.UTF_8));
-        } else {
-            this.hybridStore.remove(key);
+    /**
+     * 异步根据键值移除缓存中的一个值（如果有的话）。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在值移除完成时结束的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<Void> removeAsync(String key) {
+        this.invalidateLocal(key);
+
+        if (this.writeBehindQueue != null) {
+            // 等待正在进行的延迟写入完成，避免移除之后被写回
+            return this.writeBehindQueue.cancel(key).thenCompose(v -> this.removeFromRedisOrStore(key));
         }
+        return this.removeFromRedisOrStore(key);
     }
 
     /**
-     * 将字节数组转换为对象。
-     * @param bytes 待转换的字节数组。
-     * @return 转换后的对象或 {@code null}。
+     * 从 Redis 中移除一个值，如果 Redis 不可用，则从磁盘或分布式对象存储中移除。
+     * <p>
+     * 删除之前在同一个连接上读取值的头部，只有永不移除的值和转移到存储的值在存储中也有一份，才同时从存储中移除。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在值移除完成时结束的 {@link CompletableFuture}。
      */
-    private <T> T convertFromBytes(byte[] bytes, Class<T> clazz) {
-        try {
-            return clazz.isAssignableFrom(String.class)
-                    ? clazz.cast(new String(bytes, StandardCharsets.UTF_8))
-                    : clazz.cast(TypeUtils.fromBytes(bytes, clazz));
-        } catch (Exception e) {
-            return null;
+    private CompletableFuture<Void> removeFromRedisOrStore(String key) {
+        if (this.redisAvailable()) {
+            byte[] redisKey = toRedisKey(key);
+            CompletableFuture<Void> removed = this.readHeader(redisKey)
+                    .thenCompose(
+                            stored -> stored ? this.removeEntryAsync(key) : CompletableFuture.completedFuture(null));
+            CompletableFuture<Void> deleted = this.redisConnector
+                    .enqueue(redisKey, RedisClusterAsyncCommands::del)
+                    .toCompletableFuture()
+                    .handle((result, e) -> {
+                        if (e != null) {
+                            this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                        }
+                        this.publishInvalidation(key);
+                        return null;
+                    });
+            return CompletableFuture.allOf(deleted, removed);
         }
+        return this.removeEntryAsync(key);
     }
 
     /**
-     * 将对象转换为字节数组。
-     * @param value 待转换的对象。
-     * @return 转换后的字节数组。
+     * 根据键值移除缓存中的多个值（如果有的话）。
+     * @param keys 用于识别所处位置的值的字符串集合。
      */
-    private byte[] convertToBytes(Object value) {
-        try {
-            return value instanceof String
-                    ? ((String) value).getBytes(StandardCharsets.UTF_8)
-                    : TypeUtils.toBytes(value);
-        } catch (Exception e) {
-            return new byte[0];
+    public void removeAll(Collection<String> keys) {
+        this.removeAllAsync(keys).join();
+    }
+
+    /**
+     * 异步根据键值移除缓存中的多个值（如果有的话）。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     * @return 一个在所有值移除完成时结束的 {@link CompletableFuture}。
+     */
+    public CompletableFuture<Void> removeAllAsync(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        keys.forEach(this.promotions::remove);
+        this.memoryCache.invalidateAll(keys);
+        keys.forEach(this::invalidateDisk);
+
+        if (this.writeBehindQueue != null) {
+            List<CompletableFuture<Void>> written =
+                    keys.stream().map(this.writeBehindQueue::cancel).collect(Collectors.toList());
+            return allOf(written).thenCompose(v -> this.removeAllFromRedisOrStore(keys));
         }
+        return this.removeAllFromRedisOrStore(keys);
     }
 
     /**
-     * 根据给定的值和选项确定缓存数据的存储位置。
-     * @param value 缓存中要设置的值。
-     * @param options 值的缓存选项。
-     * @return 缓存的位置。
+     * 从 Redis 中移除多个值，如果 Redis 不可用，则从磁盘或分布式对象存储中移除。
+     * <p>
+     * 多个键的删除可能与读取头部不在同一个连接上，因此等待所有头部读取完成之后再删除，
+     * 只有在存储中也有一份的值才同时从存储中移除。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     * @return 一个在所有值移除完成时结束的 {@link CompletableFuture}。
      */
-    private HybridCachePlace whereToStore(Object value, HybridCacheEntryOptions options) {
-        if (!options.getCachePlace().equals(HybridCachePlace.AUTO)) {
-            return options.getCachePlace();
+    private CompletableFuture<Void> removeAllFromRedisOrStore(Collection<String> keys) {
+        if (!this.redisAvailable()) {
+            return allOf(keys.stream().map(this::removeEntryAsync).collect(Collectors.toList()));
         }
 
-        if (value == null || options.getPriority().equals(CacheItemPriority.HIGH)) {
-            return HybridCachePlace.MEMORY;
+        Map<String, CompletableFuture<Boolean>> headers = new LinkedHashMap<>();
+        for (String key : keys) {
+            headers.put(key, this.readHeader(toRedisKey(key)));
         }
+        return allOf(headers.values()).thenCompose(v -> {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(keys.size() + 1);
+            headers.forEach((key, stored) -> {
+                if (stored.join()) {
+                    futures.add(this.removeEntryAsync(key));
+                }
+            });
 
-        return HybridCachePlace.DISTRIBUTED;
+            byte[][] redisKeys = keys.stream().map(HybridCache::toRedisKey).toArray(byte[][]::new);
+            futures.add(this.redisConnector.del(redisKeys).handle((result, e) -> {
+                if (e != null) {
+                    this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                }
+                this.publishInvalidation(keys);
+                return null;
+            }));
+            return allOf(futures);
+        });
     }
 
-    // Closes this resource, relinquishing any underlying resources.
-    @Override
-    public void close() {
-        if (this.statefulRedisConnection != null && redisAvailable) {
-            this.statefulRedisConnection.close();
+    /**
+     * 读取 Redis 中一个值的头部，判断该值在磁盘或分布式对象存储中是否也有一份。
+     * @param redisKey Redis 中的键。
+     * @return 一个在读取完成时返回值是否为永不移除的值或指向存储的指针的 {@link CompletableFuture}，
+     *     读取失败时无法确定，返回 {@code true}。
+     */
+    private CompletableFuture<Boolean> readHeader(byte[] redisKey) {
+        return this.redisConnector
+                .enqueue(
+                        redisKey,
+                        (asyncCommands, key) -> asyncCommands.getrange(key, 0, ValueEnvelope.HEADER_LENGTH - 1))
+                .handle((header, e) -> {
+                    if (e != null) {
+                        return true;
+                    }
+                    ValueEnvelope envelope = ValueEnvelope.peek(header);
+                    return envelope != null
+                            && (envelope.isPointer() || envelope.getPriority() == CacheItemPriority.NEVER_REMOVE);
+                });
+    }
+
+    /**
+     * 在执行器上从磁盘或分布式对象存储中移除一个值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在值移除完成时结束的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Void> removeEntryAsync(String key) {
+        return CompletableFuture.runAsync(() -> this.hybridStore.removeEntry(key), this.executor);
+    }
+
+    /**
+     * 获取从 Redis 读取的键中当前的热点键，按估计访问频率从高到低排列。
+     * @return 热点键的列表，未启用热点键检测时为空列表。
+     */
+    public List<HotKey> getHotKeys() {
+        return this.hotKeyDetector != null ? this.hotKeyDetector.getHotKeys() : Collections.emptyList();
+    }
+
+    /**
+     * 将已转换的字节数组写入到给定的缓存位置。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 缓存中要设置的值的字节数组。
+     * @param place 缓存的位置。
+     * @param entryOptions 值的缓存选项。
+     * @return 一个在值写入完成时结束的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Void> setBytesAsync(
+            String key, byte[] bytes, HybridCachePlace place, HybridCacheEntryOptions entryOptions) {
+        this.promotions.remove(key);
+        this.invalidateDisk(key);
+
+        CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+        if (place.equals(HybridCachePlace.DISTRIBUTED)) {
+            if (this.writeBehindQueue != null && this.writeBehindQueue.offer(key, bytes, entryOptions)) {
+                // 值先写入内存缓存，由后台写入 Redis 或存储之后再通知其他节点
+                this.putMemory(key, bytes, entryOptions);
+                return future;
+            }
+
+            if (this.redisAvailable()) {
+                if (this.keepsLocal(key, bytes, entryOptions)) {
+                    this.putMemory(key, bytes, entryOptions);
+                } else {
+                    // 移除从 Redis 提升到内存的旧值
+                    this.memoryCache.invalidate(key);
+                }
+
+                List<CompletableFuture<Void>> stored = new ArrayList<>(1);
+                byte[] encoded = this.encodeForRedis(key, bytes, entryOptions, stored);
+                long start = System.nanoTime();
+                return allOf(stored)
+                        .thenCompose(v -> this.redisConnector
+                                .enqueue(
+                                        toRedisKey(key),
+                                        (asyncCommands, redisKey) ->
+                                                asyncCommands.set(redisKey, encoded, setArgs(entryOptions)))
+                                .toCompletableFuture())
+                        .handle((result, e) -> {
+                            if (e != null) {
+                                this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                            } else {
+                                this.recordSet(HybridCacheTier.REDIS, start, encoded.length);
+                            }
+                            this.publishInvalidation(key);
+                            return null;
+                        });
+            }
+
+            future = this.putStoreAsync(key, bytes, entryOptions);
         }
-        if (this.redisClient != null) {
-            this.redisClient.shutdown();
+
+        this.putMemory(key, bytes, entryOptions);
+        this.publishInvalidation(key);
+        return future;
+    }
+
+    /**
+     * 调用加载函数获取值并写入缓存。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param loader 用于在缓存未命中时加载值的函数。
+     * @param entryOptions 值的缓存选项。
+     * @return 一个在加载完成时返回值的字节数组或 {@code null} 的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<byte[]> loadAndSet(
+            String key, Function<String, ?> loader, HybridCacheEntryOptions entryOptions) {
+        return CompletableFuture.supplyAsync(() -> this.load(key, loader), this.executor)
+                .thenCompose(value -> {
+                    if (value == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    byte[] bytes = convertToBytes(value);
+
+                    HybridCachePlace place = whereToStore(value, bytes, entryOptions);
+                    assert !place.equals(HybridCachePlace.AUTO);
+
+                    return this.setBytesAsync(key, bytes, place, entryOptions).thenApply(v -> bytes);
+                });
+    }
+
+    /**
+     * 调用加载函数获取值，并记录其耗时。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param loader 用于加载值的函数。
+     * @return 加载函数返回的值。
+     */
+    private Object load(String key, Function<String, ?> loader) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object value = loader.apply(key);
+            success = true;
+            return value;
+        } finally {
+            this.metricsRecorder.recordLoad(System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * 在持有 Redis 分布式锁的情况下加载值，使多个节点中同一个键只有一个节点调用加载函数。
+     * <p>
+     * 未获得锁的节点会等待持有锁的节点写入缓存，如果在锁的超时时间内仍未命中，则自行加载。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param loader 用于在缓存未命中时加载值的函数。
+     * @param entryOptions 值的缓存选项。
+     * @return 一个在加载完成时返回值的字节数组或 {@code null} 的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<byte[]> loadWithLock(
+            String key, Function<String, ?> loader, HybridCacheEntryOptions entryOptions) {
+        byte[] lockKey = toRedisKey(key + LOCK_SUFFIX);
+        byte[] token = NanoIdUtils.randomNanoId().getBytes(StandardCharsets.UTF_8);
+        long lockTimeout = this.lockTimeout.toMillis();
+
+        return this.redisConnector
+                .execute(
+                        lockKey,
+                        (asyncCommands, redisKey) -> asyncCommands.set(
+                                redisKey, token, SetArgs.Builder.nx().px(lockTimeout)))
+                .toCompletableFuture()
+                .handle((reply, e) -> {
+                    if (e != null) {
+                        return this.loadAndSet(key, loader, entryOptions);
+                    }
+                    if ("OK".equals(reply)) {
+                        return this.loadAndSet(key, loader, entryOptions)
+                                .whenComplete((bytes, ex) -> this.unlock(lockKey, token));
+                    }
+                    return this.awaitLoad(
+                            key, loader, entryOptions, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockTimeout));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * 如果命中的值已经超过其过期时间的 {@link HybridCacheEntryOptions#getRefreshAheadRatio()}，则在后台重新加载。
+     * <p>
+     * 剩余过期时间优先取内存缓存中的值，只有当内存缓存中的值即将过期或未命中内存缓存时才查询 Redis。
+     * 同一个键同时只有一个重新加载，调用者继续获得旧值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param loader 用于加载值的函数。
+     * @param entryOptions 值的缓存选项。
+     * @param memoryTimeToLive 内存缓存中的值的剩余过期时间，未命中内存缓存时为 {@code null}。
+     */
+    private void refreshAhead(
+            String key, Function<String, ?> loader, HybridCacheEntryOptions entryOptions, Duration memoryTimeToLive) {
+        double ratio = entryOptions.getRefreshAheadRatio();
+        if (ratio <= 0 || ratio >= 1 || this.reloads.contains(key)) {
+            return;
+        }
+
+        long window = (long) (TimeUnit.SECONDS.toMillis(entryOptions.getAbsoluteExpiration()) * (1 - ratio));
+        if (memoryTimeToLive != null && memoryTimeToLive.toMillis() > window) {
+            return;
+        }
+
+        if (!this.redisAvailable()) {
+            if (memoryTimeToLive != null) {
+                this.reload(key, loader, entryOptions);
+            }
+            return;
+        }
+
+        this.redisConnector
+                .execute(toRedisKey(key), RedisClusterAsyncCommands::pttl)
+                .thenAccept(ttl -> {
+                    // -2 表示值只在内存缓存中，-1 表示值在 Redis 中没有设置过期时间
+                    if ((ttl == -2 && memoryTimeToLive != null) || (ttl >= 0 && ttl <= window)) {
+                        this.reload(key, loader, entryOptions);
+                    }
+                });
+    }
+
+    /**
+     * 在后台重新加载一个值，如果 Redis 可用，则通过 Redis 锁使多个节点中只有一个节点重新加载。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param loader 用于加载值的函数。
+     * @param entryOptions 值的缓存选项。
+     */
+    private void reload(String key, Function<String, ?> loader, HybridCacheEntryOptions entryOptions) {
+        if (!this.reloads.add(key)) {
+            return;
+        }
+
+        CompletableFuture<?> future;
+        if (this.redisAvailable()) {
+            byte[] lockKey = toRedisKey(key + LOCK_SUFFIX);
+            byte[] token = NanoIdUtils.randomNanoId().getBytes(StandardCharsets.UTF_8);
+            future = this.redisConnector
+                    .execute(
+                            lockKey,
+                            (asyncCommands, redisKey) -> asyncCommands.set(
+                                    redisKey, token, SetArgs.Builder.nx().px(this.lockTimeout.toMillis())))
+                    .toCompletableFuture()
+                    .thenCompose(reply -> {
+                        // 其他节点正在加载或重新加载
+                        if (!"OK".equals(reply)) {
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        return this.loadAndSet(key, loader, entryOptions)
+                                .whenComplete((bytes, e) -> this.unlock(lockKey, token));
+                    });
+        } else {
+            future = this.loadAndSet(key, loader, entryOptions);
+        }
+
+        future.whenComplete((result, e) -> this.reloads.remove(key));
+    }
+
+    /**
+     * 等待其他节点加载值，超过截止时间后自行加载。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param loader 用于在缓存未命中时加载值的函数。
+     * @param entryOptions 值的缓存选项。
+     * @param deadline 等待的截止时间，以 {@link System#nanoTime()} 表示。
+     * @return 一个在加载完成时返回值的字节数组或 {@code null} 的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<byte[]> awaitLoad(
+            String key, Function<String, ?> loader, HybridCacheEntryOptions entryOptions, long deadline) {
+        CompletableFuture<Void> delay = new CompletableFuture<>();
+        this.scheduler.schedule(() -> delay.complete(null), LOCK_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+
+        return delay.thenCompose(v -> this.getAsync(key)).thenCompose(bytes -> {
+            if (bytes != null) {
+                return CompletableFuture.completedFuture(bytes);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return this.loadAndSet(key, loader, entryOptions);
+            }
+            return this.awaitLoad(key, loader, entryOptions, deadline);
+        });
+    }
+
+    /**
+     * 释放 Redis 分布式锁，仅当锁仍由当前调用者持有时才删除。
+     * @param lockKey 锁的键。
+     * @param token 获取锁时写入的令牌。
+     */
+    private void unlock(byte[] lockKey, byte[] token) {
+        this.redisConnector.enqueue(
+                lockKey,
+                (asyncCommands, redisKey) ->
+                        asyncCommands.eval(UNLOCK_SCRIPT, ScriptOutputType.INTEGER, new byte[][] {redisKey}, token));
+    }
+
+    /**
+     * 在执行器上从磁盘或分布式对象存储中获取一个具有给定键的值。
+     * <p>
+     * 存储中的值记录了自己的过期时间，已经过期的值视为未命中并被移除，滑动过期的值在剩余时间不足一半时被延长。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在读取完成时返回所处位置的值的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<byte[]> getFromStore(String key) {
+        Object token = this.beginPromotion(key);
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    long start = System.nanoTime();
+                    byte[] stored = this.hybridStore.getEntry(key);
+                    ValueEnvelope envelope = ValueEnvelope.unwrap(stored);
+                    long now = System.currentTimeMillis();
+                    boolean expired = envelope != null && envelope.isExpired(now);
+                    this.recordGet(HybridCacheTier.STORE, start, expired ? null : stored);
+
+                    if (envelope == null) {
+                        this.promotions.remove(key, token);
+                        return null;
+                    }
+                    if (expired) {
+                        this.completePromotion(key, token, () -> this.hybridStore.removeEntry(key));
+                        return null;
+                    }
+
+                    byte[] bytes = envelope.getValue();
+                    boolean promote = this.shouldPromote(key, envelope);
+                    if (promote || envelope.getSlidingExpiration() > 0) {
+                        this.completePromotion(key, token, () -> {
+                            long expiresAt = this.slideInStore(key, envelope, now, false);
+                            if (promote) {
+                                this.promote(
+                                        key,
+                                        bytes,
+                                        promotionExpiration(envelope, expiresAt, now),
+                                        envelope.getPriority());
+                            }
+                        });
+                    } else {
+                        this.promotions.remove(key, token);
+                    }
+                    return bytes;
+                },
+                this.executor);
+    }
+
+    /**
+     * 延长 Redis 中一个滑动过期的值的过期时间，不超过其绝对过期时间。
+     * <p>
+     * 值的滑动过期时间记录在包装后的值中，只有读取后才能知道，因此在读取后通过 PEXPIRE 延长，而不是使用 GETEX。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param envelope Redis 中命中的值，未命中时为 {@code null}。
+     */
+    private void slideInRedis(String key, ValueEnvelope envelope) {
+        if (envelope == null || envelope.getSlidingExpiration() <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAt = envelope.slide(now);
+        this.redisConnector.enqueue(
+                toRedisKey(key),
+                (asyncCommands, redisKey) -> asyncCommands.pexpire(redisKey, Math.max(expiresAt - now, 1)));
+    }
+
+    /**
+     * 延长磁盘或分布式对象存储中一个滑动过期的值的过期时间，将新的过期时间写回存储。
+     * <p>
+     * 为了避免每次读取都重写值，除非强制延长，否则只在剩余时间不足滑动过期时间的一半时才写回。
+     * 调用者需要持有有效的提升令牌，避免覆盖并发写入的新值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param envelope 存储中命中的值。
+     * @param now 以 Unix 纪元以来的毫秒数表示的当前时间。
+     * @param force 是否强制延长。
+     * @return 以 Unix 纪元以来的毫秒数表示的值的过期时间，0 表示永不过期。
+     */
+    private long slideInStore(String key, ValueEnvelope envelope, long now, boolean force) {
+        long slidingExpiration = envelope.getSlidingExpiration();
+        if (slidingExpiration <= 0 || (!force && envelope.getExpiresAt() - now > slidingExpiration / 2)) {
+            return envelope.getExpiresAt();
+        }
+
+        long expiresAt = envelope.slide(now);
+        this.putStore(
+                key,
+                this.encode(
+                        envelope.getValue(),
+                        envelope.getAbsoluteExpiration(),
+                        slidingExpiration,
+                        expiresAt,
+                        envelope.getPriority()));
+        return expiresAt;
+    }
+
+    /**
+     * 计算从 Redis 或存储提升到本地的值的过期时间。
+     * <p>
+     * 本地的读取不会延长 Redis 或存储中的过期时间，因此滑动过期的值在本地最多保留滑动过期时间的一半，
+     * 之后的读取回到 Redis 或存储并延长其过期时间。
+     * @param envelope 命中的值。
+     * @param expiresAt 以 Unix 纪元以来的毫秒数表示的值的过期时间，0 表示永不过期。
+     * @param now 以 Unix 纪元以来的毫秒数表示的当前时间。
+     * @return 值在本地的过期时间，{@code null} 表示使用默认的过期时间。
+     */
+    private static Duration promotionExpiration(ValueEnvelope envelope, long expiresAt, long now) {
+        if (expiresAt <= 0) {
+            return null;
+        }
+
+        long expiration = expiresAt - now;
+        if (envelope.getSlidingExpiration() > 0) {
+            expiration = Math.min(expiration, envelope.getSlidingExpiration() / 2);
+        }
+        return Duration.ofMillis(Math.max(expiration, 1));
+    }
+
+    /**
+     * 将 Redis 中命中的值提升到内存缓存中，过期时间不超过其在 Redis 中的剩余过期时间。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param envelope Redis 中命中的值，未命中时为 {@code null}。
+     * @param token 读取前登记的提升令牌。
+     */
+    private void promoteFromRedis(String key, ValueEnvelope envelope, Object token) {
+        boolean hot = this.hotKeyDetector != null && this.hotKeyDetector.record(key);
+        if (envelope == null) {
+            this.promotions.remove(key, token);
+            return;
+        }
+        if (!this.shouldPromote(key, envelope)) {
+            if (hot && envelope.getPriority() != CacheItemPriority.LOW) {
+                this.pinHotKey(key, envelope, token);
+            } else {
+                this.promotions.remove(key, token);
+            }
+            return;
+        }
+
+        byte[] bytes = envelope.getValue();
+        CacheItemPriority priority = envelope.getPriority();
+        if (envelope.getSlidingExpiration() > 0) {
+            long now = System.currentTimeMillis();
+            Duration expiration = promotionExpiration(envelope, envelope.slide(now), now);
+            this.promotionExecutor.execute(
+                    () -> this.completePromotion(key, token, () -> this.promote(key, bytes, expiration, priority)));
+            return;
+        }
+
+        this.redisConnector
+                .execute(toRedisKey(key), RedisClusterAsyncCommands::pttl)
+                .whenCompleteAsync(
+                        (ttl, e) -> {
+                            // -2 表示键已不存在，-1 表示键没有设置过期时间
+                            if (e != null || ttl == -2) {
+                                this.promotions.remove(key, token);
+                            } else if (ttl == -1) {
+                                this.completePromotion(key, token, () -> this.promote(key, bytes, null, priority));
+                            } else {
+                                this.completePromotion(
+                                        key, token, () -> this.promote(key, bytes, Duration.ofMillis(ttl), priority));
+                            }
+                        },
+                        this.promotionExecutor);
+    }
+
+    /**
+     * 判断是否将 Redis 或存储中命中的值提升到本地。
+     * <p>
+     * 低优先级的值不进入本地缓存，永不移除的值总是提升，其余的值由 {@link HybridCacheOptions#getPromotionPolicy()} 决定。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param envelope 命中的值。
+     * @return 如果需要提升，则返回 {@code true}。
+     */
+    private boolean shouldPromote(String key, ValueEnvelope envelope) {
+        switch (envelope.getPriority()) {
+            case LOW:
+                return false;
+            case NEVER_REMOVE:
+                return true;
+            default:
+                return this.promotionPolicy.shouldPromote(key);
+        }
+    }
+
+    /**
+     * 将 Redis 中命中的热点键以较短的过期时间固定到内存缓存中，不写入本地磁盘缓存。
+     * <p>
+     * 该过期时间同时限制了其他节点更新该键后本地读取到旧值的时间。
+     * @param key 热点键。
+     * @param envelope Redis 中命中的值。
+     * @param token 读取前登记的提升令牌。
+     */
+    private void pinHotKey(String key, ValueEnvelope envelope, Object token) {
+        byte[] bytes = envelope.getValue();
+        long now = System.currentTimeMillis();
+        long expiresAt = envelope.getSlidingExpiration() > 0 ? envelope.slide(now) : envelope.getExpiresAt();
+        Duration expiration = promotionExpiration(envelope, expiresAt, now);
+        Duration timeToLive = expiration != null && expiration.compareTo(this.hotKeyTimeToLive) < 0
+                ? expiration
+                : this.hotKeyTimeToLive;
+        this.promotionExecutor.execute(() -> this.completePromotion(key, token, () -> {
+            this.memoryCache.put(key, bytes, timeToLive);
+            this.metricsRecorder.recordHotKeyPin(key);
+        }));
+    }
+
+    /**
+     * 将 Redis 或存储中命中的值写入内存缓存和本地磁盘缓存。
+     * <p>
+     * 与内存缓存相同，磁盘缓存中的过期时间不超过 {@link HybridCacheOptions#getExpirationScanFrequency()}，
+     * 以限制错过失效通知时读取到旧值的时间。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 命中的值。
+     * @param expiration 值的剩余过期时间，{@code null} 表示使用默认的过期时间。
+     * @param priority 值的优先级。
+     */
+    private void promote(String key, byte[] bytes, Duration expiration, CacheItemPriority priority) {
+        this.memoryCache.put(key, bytes, expiration, priority);
+
+        if (this.diskCache != null) {
+            long start = System.nanoTime();
+            this.diskCache.put(
+                    key,
+                    bytes,
+                    expiration != null && expiration.compareTo(this.defaultExpiration) < 0
+                            ? expiration
+                            : this.defaultExpiration);
+            this.recordSet(HybridCacheTier.DISK, start, bytes.length);
+        }
+    }
+
+    /**
+     * 在执行器上从本地磁盘缓存中获取一个具有给定键的值，并将命中的值提升到内存缓存中。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在读取完成时返回所处位置的值或 {@code null} 的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<byte[]> getFromDisk(String key) {
+        Object token = this.beginPromotion(key);
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    long start = System.nanoTime();
+                    Duration expiration = this.diskCache.getTimeToLive(key);
+                    byte[] bytes = this.diskCache.get(key);
+                    this.recordGet(HybridCacheTier.DISK, start, bytes);
+                    if (bytes != null && expiration != null && this.promotionPolicy.shouldPromote(key)) {
+                        this.completePromotion(key, token, () -> this.memoryCache.put(key, bytes, expiration));
+                    } else {
+                        this.promotions.remove(key, token);
+                    }
+                    return bytes;
+                },
+                this.executor);
+    }
+
+    /**
+     * 在执行器上从本地磁盘缓存中获取多个具有给定键的值，未命中的键从 Redis 或存储中获取。
+     * @param keys 用于识别所处位置的值的字符串列表。
+     * @return 一个在读取完成时返回键与所处位置的值的映射的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Map<String, byte[]>> getAllFromDisk(List<String> keys) {
+        Map<String, CompletableFuture<byte[]>> futures = new LinkedHashMap<>();
+        for (String key : keys) {
+            if (this.diskCache.contains(key)) {
+                futures.put(key, this.getFromDisk(key));
+            } else {
+                this.metricsRecorder.recordMiss(HybridCacheTier.DISK);
+            }
+        }
+
+        return allOf(futures.values()).thenCompose(v -> {
+            Map<String, byte[]> values = new HashMap<>();
+            List<String> missingKeys = new ArrayList<>();
+            for (String key : keys) {
+                CompletableFuture<byte[]> completableFuture = futures.get(key);
+                byte[] bytes = completableFuture != null ? completableFuture.join() : null;
+                if (bytes != null) {
+                    values.put(key, bytes);
+                } else {
+                    missingKeys.add(key);
+                }
+            }
+
+            if (missingKeys.isEmpty()) {
+                return CompletableFuture.completedFuture(values);
+            }
+            return this.getAllFromRedisOrStore(missingKeys).thenApply(found -> {
+                values.putAll(found);
+                return values;
+            });
+        });
+    }
+
+    /**
+     * 从 Redis 中获取多个具有给定键的值，如果 Redis 不可用，则从磁盘或分布式对象存储中获取。
+     * @param keys 用于识别所处位置的值的字符串列表。
+     * @return 一个在读取完成时返回键与所处位置的值的映射的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Map<String, byte[]>> getAllFromRedisOrStore(List<String> keys) {
+        if (this.writeBehindQueue != null) {
+            Map<String, byte[]> queued = new HashMap<>();
+            List<String> remainingKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                byte[] bytes = this.writeBehindQueue.peek(key);
+                if (bytes != null) {
+                    queued.put(key, bytes);
+                } else {
+                    remainingKeys.add(key);
+                }
+            }
+
+            if (!queued.isEmpty()) {
+                if (remainingKeys.isEmpty()) {
+                    return CompletableFuture.completedFuture(queued);
+                }
+                return this.getAllFromRedisOrStore(remainingKeys).thenApply(found -> {
+                    queued.putAll(found);
+                    return queued;
+                });
+            }
+        }
+
+        if (this.placementEngine != null) {
+            keys.forEach(this.placementEngine::record);
+        }
+        return this.redisAvailable() ? this.getAllFromRedis(keys) : this.getAllFromStore(keys);
+    }
+
+    /**
+     * 在从 Redis 或存储中读取一个值之前登记一个提升令牌。
+     * <p>
+     * 在读取和提升之间对该键的写入或移除会撤销令牌，避免将过时的值提升到内存缓存中。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 提升令牌。
+     */
+    private Object beginPromotion(String key) {
+        Object token = new Object();
+        this.promotions.put(key, token);
+        return token;
+    }
+
+    /**
+     * 如果提升令牌仍然有效，则执行提升。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param token 读取前登记的提升令牌。
+     * @param promotion 将值写入内存缓存的操作。
+     */
+    private void completePromotion(String key, Object token, Runnable promotion) {
+        this.promotions.computeIfPresent(key, (k, current) -> {
+            if (current != token) {
+                return current;
+            }
+
+            promotion.run();
+            return null;
+        });
+    }
+
+    /**
+     * 通过一次 MGET 从 Redis 中获取多个具有给定键的值，如果失败，则从磁盘或分布式对象存储中获取。
+     * @param keys 用于识别所处位置的值的字符串列表。
+     * @return 一个在读取完成时返回键与所处位置的值的映射的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Map<String, byte[]>> getAllFromRedis(List<String> keys) {
+        byte[][] redisKeys = keys.stream().map(HybridCache::toRedisKey).toArray(byte[][]::new);
+        Object[] tokens = keys.stream().map(this::beginPromotion).toArray();
+        List<String> pointers = new ArrayList<>();
+        long start = System.nanoTime();
+        return this.redisConnector
+                .mget(redisKeys)
+                .thenApply(keyValues -> {
+                    this.metricsRecorder.recordGetLatency(HybridCacheTier.REDIS, System.nanoTime() - start);
+
+                    Map<String, byte[]> values = new HashMap<>();
+                    for (int i = 0; i < keyValues.size(); i++) {
+                        KeyValue<byte[], byte[]> keyValue = keyValues.get(i);
+                        byte[] bytes = keyValue.hasValue() ? keyValue.getValue() : null;
+                        this.recordLookup(HybridCacheTier.REDIS, bytes);
+
+                        ValueEnvelope envelope = ValueEnvelope.unwrap(bytes);
+                        this.slideInRedis(keys.get(i), envelope);
+                        if (envelope != null && envelope.isPointer()) {
+                            this.promotions.remove(keys.get(i), tokens[i]);
+                            pointers.add(keys.get(i));
+                            continue;
+                        }
+                        if (envelope != null) {
+                            values.put(keys.get(i), envelope.getValue());
+                        }
+                        this.promoteFromRedis(keys.get(i), envelope, tokens[i]);
+                    }
+                    return values;
+                })
+                .handle((values, e) -> {
+                    if (e == null && !pointers.isEmpty()) {
+                        // 转移到存储中的值从存储中读取
+                        return this.getAllFromStore(pointers).thenApply(stored -> {
+                            values.putAll(stored);
+                            return values;
+                        });
+                    }
+                    if (e == null) {
+                        return CompletableFuture.completedFuture(values);
+                    }
+
+                    this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                    for (int i = 0; i < keys.size(); i++) {
+                        this.promotions.remove(keys.get(i), tokens[i]);
+                    }
+                    return this.getAllFromStore(keys);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * 在执行器上并行地从磁盘或分布式对象存储中获取多个具有给定键的值。
+     * @param keys 用于识别所处位置的值的字符串列表。
+     * @return 一个在读取完成时返回键与所处位置的值的映射的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Map<String, byte[]>> getAllFromStore(List<String> keys) {
+        Map<String, CompletableFuture<byte[]>> futures = new LinkedHashMap<>();
+        for (String key : keys) {
+            futures.put(key, this.getFromStore(key));
+        }
+
+        return allOf(futures.values()).thenApply(v -> {
+            Map<String, byte[]> values = new HashMap<>();
+            futures.forEach((key, completableFuture) -> {
+                byte[] bytes = completableFuture.join();
+                if (bytes != null) {
+                    values.put(key, bytes);
+                }
+            });
+            return values;
+        });
+    }
+
+    /**
+     * 创建值的缓存选项。
+     * @param entryOptionsAction 用于配置值的缓存选项。
+     * @return 值的缓存选项。
+     */
+    private HybridCacheEntryOptions createEntryOptions(Consumer<HybridCacheEntryOptions> entryOptionsAction) {
+        HybridCacheEntryOptions entryOptions = new HybridCacheEntryOptions();
+        if (entryOptionsAction != null) {
+            entryOptionsAction.accept(entryOptions);
+        }
+
+        return entryOptions;
+    }
+
+    /**
+     * 将字节数组转换为对象。
+     * @param bytes 待转换的字节数组。
+     * @return 转换后的对象或 {@code null}。
+     */
+    private <T> T convertFromBytes(byte[] bytes, Class<T> clazz) {
+        long start = System.nanoTime();
+        try {
+            return clazz.isAssignableFrom(String.class)
+                    ? clazz.cast(new String(bytes, StandardCharsets.UTF_8))
+                    : this.serializer.deserialize(bytes, clazz);
+        } catch (Exception e) {
+            return null;
+        } finally {
+            this.metricsRecorder.recordDeserialization(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 将对象转换为字节数组。
+     * @param value 待转换的对象。
+     * @return 转换后的字节数组。
+     */
+    private byte[] convertToBytes(Object value) {
+        long start = System.nanoTime();
+        try {
+            return value instanceof String
+                    ? ((String) value).getBytes(StandardCharsets.UTF_8)
+                    : this.serializer.serialize(value);
+        } catch (Exception e) {
+            return new byte[0];
+        } finally {
+            this.metricsRecorder.recordSerialization(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 根据给定的值和选项确定缓存数据的存储位置。
+     * <p>
+     * 超过 {@link HybridCacheOptions#getMaxEntryBytes()} 的值不会存储在内存中。低优先级的值只存储在分布式缓存中；
+     * 永不移除的值同时存储在 Redis 和磁盘或分布式对象存储中，并固定在内存缓存中。
+     * @param value 缓存中要设置的值。
+     * @param bytes 缓存中要设置的值的字节数组。
+     * @param options 值的缓存选项。
+     * @return 缓存的位置。
+     */
+    private HybridCachePlace whereToStore(Object value, byte[] bytes, HybridCacheEntryOptions options) {
+        CacheItemPriority priority = options.getPriority();
+        if (priority == CacheItemPriority.LOW || priority == CacheItemPriority.NEVER_REMOVE) {
+            return HybridCachePlace.DISTRIBUTED;
+        }
+
+        HybridCachePlace place = options.getCachePlace();
+        if (place.equals(HybridCachePlace.AUTO)) {
+            place = value == null || options.getPriority().equals(CacheItemPriority.HIGH)
+                    ? HybridCachePlace.MEMORY
+                    : HybridCachePlace.DISTRIBUTED;
+        }
+
+        if (place.equals(HybridCachePlace.MEMORY) && !this.memoryCache.accepts(bytes)) {
+            return HybridCachePlace.DISTRIBUTED;
+        }
+
+        return place;
+    }
+
+    /**
+     * 将延迟写入队列中的一批值写入 Redis，如果 Redis 不可用，则写入磁盘或分布式对象存储，完成后通知其他节点。
+     * <p>
+     * 写入 Redis 的值按过期时间分组，每组通过一次管道写入。值的过期时间从写入 Redis 或存储时开始计算。
+     * 永不移除的值和按自动放置转移的值同时写入磁盘或分布式对象存储。
+     * @param entries 一批值。
+     * @return 一个在所有值写入完成时结束的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Void> writeBehind(List<WriteBehindQueue.Entry> entries) {
+        List<String> keys = entries.stream().map(entry -> entry.key).collect(Collectors.toList());
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+
+        if (this.redisAvailable()) {
+            Map<List<Long>, List<WriteBehindQueue.Entry>> groups = entries.stream()
+                    .collect(Collectors.groupingBy(
+                            entry -> Arrays.asList(
+                                    entry.entryOptions.getAbsoluteExpiration(),
+                                    entry.entryOptions.getSlidingExpiration()),
+                            LinkedHashMap::new,
+                            Collectors.toList()));
+            groups.values().forEach(group -> {
+                List<KeyValue<byte[], byte[]>> values = new ArrayList<>(group.size());
+                List<CompletableFuture<Void>> stored = new ArrayList<>();
+                long length = 0;
+                for (WriteBehindQueue.Entry entry : group) {
+                    byte[] encoded = this.encodeForRedis(entry.key, entry.bytes, entry.entryOptions, stored);
+                    values.add(KeyValue.just(toRedisKey(entry.key), encoded));
+                    length += encoded.length;
+                }
+
+                long bytes = length;
+                long start = System.nanoTime();
+                futures.add(allOf(stored)
+                        .thenCompose(v -> this.redisConnector.setAll(values, setArgs(group.get(0).entryOptions)))
+                        .whenComplete((result, e) -> {
+                            if (e != null) {
+                                this.metricsRecorder.recordError(HybridCacheTier.REDIS, e);
+                            } else {
+                                this.recordSet(HybridCacheTier.REDIS, start, bytes);
+                            }
+                        }));
+            });
+        } else {
+            for (WriteBehindQueue.Entry entry : entries) {
+                futures.add(this.putStoreAsync(entry.key, entry.bytes, entry.entryOptions));
+            }
+        }
+
+        return allOf(futures).handle((result, e) -> {
+            this.publishInvalidation(keys);
+            return null;
+        });
+    }
+
+    /**
+     * 获取是否可以向 Redis 发送命令。
+     * <p>
+     * 连接尚未建立或断路器打开时，读取和写入转到磁盘或分布式对象存储。
+     * @return 如果 Redis 是可用的，则为 {@code true}。
+     */
+    private boolean redisAvailable() {
+        return this.redisConnector != null && this.redisConnector.isAvailable();
+    }
+
+    /**
+     * 在连接到 Redis 之后开始接收其他节点的失效消息。
+     * @param connector 已经建立连接的连接器。
+     * @param redisCacheOptions Redis 缓存选项。
+     */
+    private void onRedisConnected(RedisConnector connector, RedisCacheOptions redisCacheOptions) {
+        if (redisCacheOptions.getInvalidationMode() == InvalidationMode.NONE) {
+            return;
+        }
+
+        try {
+            this.invalidationBus = new InvalidationBus(
+                    connector, redisCacheOptions, this.scheduler, this::invalidateLocal, this::invalidateLocalAll);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    /**
+     * 通知其他节点一个键已被写入或移除。
+     * @param key 一个字符串，用于识别所处位置的值。
+     */
+    private void publishInvalidation(String key) {
+        if (this.invalidationBus != null) {
+            this.invalidationBus.publish(key);
+        }
+    }
+
+    /**
+     * 通知其他节点多个键已被写入或移除。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     */
+    private void publishInvalidation(Collection<String> keys) {
+        if (this.invalidationBus != null) {
+            this.invalidationBus.publishAll(keys);
+        }
+    }
+
+    /**
+     * 使内存缓存中的一个值失效，并撤销正在进行的提升。
+     * @param key 一个字符串，用于识别所处位置的值。
+     */
+    private void invalidateLocal(String key) {
+        this.promotions.remove(key);
+        this.memoryCache.invalidate(key);
+        this.invalidateDisk(key);
+    }
+
+    /**
+     * 使本地磁盘缓存中的一个值失效（如果启用了磁盘缓存的话）。
+     * @param key 一个字符串，用于识别所处位置的值。
+     */
+    private void invalidateDisk(String key) {
+        if (this.diskCache != null) {
+            this.diskCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 使内存缓存中的所有值失效，并撤销所有正在进行的提升。
+     */
+    private void invalidateLocalAll() {
+        this.promotions.clear();
+        this.memoryCache.invalidateAll();
+        if (this.diskCache != null) {
+            this.diskCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 按配置的压缩方式包装写入 Redis 或磁盘、分布式对象存储的值，并附带值的过期信息。
+     * @param bytes 待写入的值。
+     * @param entryOptions 值的缓存选项。
+     * @param store 是否写入磁盘或分布式对象存储。
+     * @return 包装后的值。
+     */
+    private byte[] encode(byte[] bytes, HybridCacheEntryOptions entryOptions, boolean store) {
+        return this.encode(bytes, entryOptions, store, false);
+    }
+
+    /**
+     * 按配置的压缩方式包装写入 Redis 或磁盘、分布式对象存储的值，并附带值的过期信息。
+     * <p>
+     * Redis 通过键的过期时间实现绝对过期，只有滑动过期的值需要附带过期信息；
+     * 磁盘和分布式对象存储没有过期机制，写入的值总是附带过期信息。
+     * @param bytes 待写入的值。
+     * @param entryOptions 值的缓存选项。
+     * @param store 是否写入磁盘或分布式对象存储。
+     * @param pointer 是否只写入指向存储的指针，值本身已经写入存储。
+     * @return 包装后的值或指针。
+     */
+    private byte[] encode(byte[] bytes, HybridCacheEntryOptions entryOptions, boolean store, boolean pointer) {
+        long slidingExpiration = TimeUnit.SECONDS.toMillis(entryOptions.getSlidingExpiration());
+        long absoluteExpiration = 0;
+        long expiresAt = 0;
+        if (store || slidingExpiration > 0) {
+            long now = System.currentTimeMillis();
+            absoluteExpiration = entryOptions.getAbsoluteExpiration() > 0
+                    ? now + TimeUnit.SECONDS.toMillis(entryOptions.getAbsoluteExpiration())
+                    : 0;
+            expiresAt = absoluteExpiration;
+            if (slidingExpiration > 0) {
+                expiresAt = absoluteExpiration > 0
+                        ? Math.min(absoluteExpiration, now + slidingExpiration)
+                        : now + slidingExpiration;
+            }
+        }
+
+        CacheItemPriority priority = entryOptions.getPriority();
+        return pointer
+                ? ValueEnvelope.pointer(absoluteExpiration, slidingExpiration, expiresAt, priority)
+                : this.encode(bytes, absoluteExpiration, slidingExpiration, expiresAt, priority);
+    }
+
+    /**
+     * 按配置的压缩方式包装写入 Redis 或磁盘、分布式对象存储的值，并附带给定的过期信息。
+     * @param bytes 待写入的值。
+     * @param absoluteExpiration 以 Unix 纪元以来的毫秒数表示的绝对过期时间，0 表示没有设置。
+     * @param slidingExpiration 以毫秒为单位的滑动过期时间，0 表示没有设置。
+     * @param expiresAt 以 Unix 纪元以来的毫秒数表示的当前的过期时间，0 表示永不过期。
+     * @param priority 值的优先级。
+     * @return 包装后的值。
+     */
+    private byte[] encode(
+            byte[] bytes, long absoluteExpiration, long slidingExpiration, long expiresAt, CacheItemPriority priority) {
+        return ValueEnvelope.encode(
+                bytes,
+                this.compressionCodec,
+                this.compressionLevel,
+                this.compressionThreshold,
+                absoluteExpiration,
+                slidingExpiration,
+                expiresAt,
+                priority);
+    }
+
+    /**
+     * 按值的缓存选项将值写入内存缓存，低优先级的值不写入内存缓存，只移除旧值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 缓存中要设置的值。
+     * @param entryOptions 值的缓存选项。
+     */
+    private void putMemory(String key, byte[] bytes, HybridCacheEntryOptions entryOptions) {
+        if (entryOptions.getPriority() == CacheItemPriority.LOW) {
+            this.memoryCache.invalidate(key);
+            return;
+        }
+
+        long start = System.nanoTime();
+        this.memoryCache.put(
+                key,
+                bytes,
+                entryOptions.getAbsoluteExpiration() > 0
+                        ? Duration.ofSeconds(entryOptions.getAbsoluteExpiration())
+                        : null,
+                entryOptions.getSlidingExpiration() > 0
+                        ? Duration.ofSeconds(entryOptions.getSlidingExpiration())
+                        : null,
+                entryOptions.getPriority());
+        this.recordSet(HybridCacheTier.MEMORY, start, bytes.length);
+    }
+
+    /**
+     * 将已包装的值写入磁盘或分布式对象存储。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 包装后的值。
+     */
+    private void putStore(String key, byte[] bytes) {
+        long start = System.nanoTime();
+        this.hybridStore.putEntry(key, bytes);
+        this.recordSet(HybridCacheTier.STORE, start, bytes.length);
+    }
+
+    /**
+     * 在执行器上按值的缓存选项包装一个值并写入磁盘或分布式对象存储。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 待写入的值。
+     * @param entryOptions 值的缓存选项。
+     * @return 一个在值写入完成时结束的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<Void> putStoreAsync(String key, byte[] bytes, HybridCacheEntryOptions entryOptions) {
+        byte[] encoded = this.encode(bytes, entryOptions, true);
+        return CompletableFuture.runAsync(() -> this.putStore(key, encoded), this.executor);
+    }
+
+    /**
+     * 包装写入 Redis 的值，需要同时写入磁盘或分布式对象存储的值在执行器上写入存储。
+     * <p>
+     * 永不移除的值在 Redis 和存储中各有一份；按自动放置转移到存储的大值在 Redis 中只保存指向存储的指针，
+     * 调用者需要等待存储写入完成之后再将指针写入 Redis。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 待写入的值。
+     * @param entryOptions 值的缓存选项。
+     * @param stored 用于收集写入存储的 {@link CompletableFuture} 的列表。
+     * @return 写入 Redis 的值或指针。
+     */
+    private byte[] encodeForRedis(
+            String key, byte[] bytes, HybridCacheEntryOptions entryOptions, List<CompletableFuture<Void>> stored) {
+        boolean offloaded = this.offloads(bytes, entryOptions);
+        if (offloaded || isPinned(entryOptions)) {
+            stored.add(this.putStoreAsync(key, bytes, entryOptions));
+        }
+        return this.encode(bytes, entryOptions, false, offloaded);
+    }
+
+    /**
+     * 判断一个写入 Redis 的值是否同时写入内存缓存。
+     * <p>
+     * 永不移除的值总是写入内存缓存，自动放置的值由 {@link PlacementEngine} 按大小和读取频率决定，其余的值不写入，
+     * 由读取时的提升决定。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 待写入的值。
+     * @param entryOptions 值的缓存选项。
+     * @return 如果值需要写入内存缓存，则返回 {@code true}。
+     */
+    private boolean keepsLocal(String key, byte[] bytes, HybridCacheEntryOptions entryOptions) {
+        if (isPinned(entryOptions)) {
+            return true;
+        }
+        return this.isAutoPlaced(entryOptions)
+                && entryOptions.getPriority() != CacheItemPriority.LOW
+                && this.placementEngine.keepsLocal(key, bytes, this.memoryCache.contains(key));
+    }
+
+    /**
+     * 判断一个值是否按自动放置转移到分布式对象存储。
+     * <p>
+     * 只有连接到了分布式对象存储时才转移，本地磁盘上的值在其他节点上无法读取，指针会指向一个不存在的值。
+     * @param bytes 待写入的值。
+     * @param entryOptions 值的缓存选项。
+     * @return 如果值需要转移到存储，则返回 {@code true}。
+     */
+    private boolean offloads(byte[] bytes, HybridCacheEntryOptions entryOptions) {
+        return this.isAutoPlaced(entryOptions)
+                && this.hybridStore.isDistributed()
+                && this.placementEngine.offloads(bytes);
+    }
+
+    /**
+     * 判断一个值的层级是否由 {@link PlacementEngine} 选择。
+     * @param entryOptions 值的缓存选项。
+     * @return 如果启用了自动放置并且值的位置为 {@link HybridCachePlace#AUTO}，则返回 {@code true}。
+     */
+    private boolean isAutoPlaced(HybridCacheEntryOptions entryOptions) {
+        return this.placementEngine != null && entryOptions.getCachePlace() == HybridCachePlace.AUTO;
+    }
+
+    /**
+     * 判断一个值是否为永不移除的值，这样的值同时写入 Redis 和磁盘或分布式对象存储，并固定在内存缓存中。
+     * @param entryOptions 值的缓存选项。
+     * @return 如果值的优先级为 {@link CacheItemPriority#NEVER_REMOVE}，则返回 {@code true}。
+     */
+    private static boolean isPinned(HybridCacheEntryOptions entryOptions) {
+        return entryOptions.getPriority() == CacheItemPriority.NEVER_REMOVE;
+    }
+
+    /**
+     * 记录从一个层级中读取值的延迟和结果。
+     * @param tier 读取的层级。
+     * @param start 开始读取的时刻，以 {@link System#nanoTime()} 表示。
+     * @param bytes 读取到的值，未命中时为 {@code null}。
+     */
+    private void recordGet(HybridCacheTier tier, long start, byte[] bytes) {
+        this.metricsRecorder.recordGetLatency(tier, System.nanoTime() - start);
+        this.recordLookup(tier, bytes);
+    }
+
+    /**
+     * 记录在一个层级中查找一个值的结果。
+     * @param tier 查找的层级。
+     * @param bytes 读取到的值，未命中时为 {@code null}。
+     */
+    private void recordLookup(HybridCacheTier tier, byte[] bytes) {
+        if (bytes != null) {
+            this.metricsRecorder.recordHit(tier);
+            this.metricsRecorder.recordBytesRead(tier, bytes.length);
+        } else {
+            this.metricsRecorder.recordMiss(tier);
+        }
+    }
+
+    /**
+     * 记录向一个层级中写入值的延迟和字节数。
+     * @param tier 写入的层级。
+     * @param start 开始写入的时刻，以 {@link System#nanoTime()} 表示。
+     * @param bytes 写入的字节数。
+     */
+    private void recordSet(HybridCacheTier tier, long start, long bytes) {
+        this.metricsRecorder.recordSetLatency(tier, System.nanoTime() - start);
+        this.metricsRecorder.recordBytesWritten(tier, bytes);
+    }
+
+    /**
+     * 创建写入 Redis 的参数，滑动过期的值以滑动过期时间作为键的初始过期时间。
+     * @param entryOptions 值的缓存选项。
+     * @return 写入 Redis 的参数。
+     */
+    private static SetArgs setArgs(HybridCacheEntryOptions entryOptions) {
+        long absoluteExpiration = TimeUnit.SECONDS.toMillis(entryOptions.getAbsoluteExpiration());
+        long slidingExpiration = TimeUnit.SECONDS.toMillis(entryOptions.getSlidingExpiration());
+        if (slidingExpiration > 0) {
+            return SetArgs.Builder.px(
+                    absoluteExpiration > 0 ? Math.min(absoluteExpiration, slidingExpiration) : slidingExpiration);
+        }
+        return absoluteExpiration > 0 ? SetArgs.Builder.px(absoluteExpiration) : new SetArgs();
+    }
+
+    /**
+     * 将键转换为 Redis 中的键。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return Redis 中的键。
+     */
+    private static byte[] toRedisKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 返回一个在所有给定的 {@link CompletableFuture} 完成时结束的 {@link CompletableFuture}。
+     * @param futures 待等待的 {@link CompletableFuture} 集合。
+     * @return 一个在所有给定的 {@link CompletableFuture} 完成时结束的 {@link CompletableFuture}。
+     */
+    private static CompletableFuture<Void> allOf(Collection<? extends CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Closes this resource, relinquishing any underlying resources.
+    @Override
+    public void close() {
+        if (this.writeBehindQueue != null) {
+            this.writeBehindQueue.close();
+        }
+        if (this.invalidationBus != null) {
+            this.invalidationBus.close();
+        }
+        if (this.redisConnector != null) {
+            this.redisConnector.close();
+        }
+        if (this.diskCache != null) {
+            this.diskCache.close();
+        }
+        this.scheduler.shutdownNow();
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+        if (this.snapshotPath != null) {
+            try {
+                MemorySnapshot.write(this.snapshotPath, this.memoryCache, this.snapshotMaxEntries);
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+        this.memoryCache.close();
+    }
+
+    /**
+     * 从快照文件中加载内存缓存，并删除快照文件，避免在异常退出后加载过时的快照。
+     */
+    private void loadSnapshot() {
+        try {
+            if (Files.exists(this.snapshotPath)) {
+                MemorySnapshot.load(this.snapshotPath, this.memoryCache);
+                Files.delete(this.snapshotPath);
+            }
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    /**
+     * 删除不再使用的快照文件（如果有的话）。
+     * @param snapshotPath 快照文件的路径。
+     */
+    private void deleteSnapshot(Path snapshotPath) {
+        try {
+            Files.deleteIfExists(snapshotPath);
+        } catch (Exception e) {
+            // ignore
         }
     }
 }
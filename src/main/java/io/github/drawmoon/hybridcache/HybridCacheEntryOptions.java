@@ -23,12 +23,32 @@ import lombok.Setter;
 
 public class HybridCacheEntryOptions {
     /**
-     * 缓存项的绝对到期日。
+     * 缓存项的绝对到期日，以秒为单位，0 表示没有绝对到期日。
      */
     @Getter
     @Setter
     private long absoluteExpiration = 30;
 
+    /**
+     * 缓存项的滑动过期时间，以秒为单位，0 表示不使用滑动过期。
+     * <p>
+     * 缓存项在该时间内没有被访问则过期，每次访问或调用 {@link HybridCache#refresh(String)} 都会延长过期时间，
+     * 但不超过 {@link #getAbsoluteExpiration()}。
+     */
+    @Getter
+    @Setter
+    private long slidingExpiration = 0;
+
+    /**
+     * 提前重新加载的时间点，以缓存项的过期时间的比例表示，取值范围为 0 到 1，0 表示不提前重新加载。
+     * <p>
+     * 仅对通过加载函数获取的缓存项有效。例如设置为 0.8 时，如果命中的缓存项已经过了其过期时间的 80%，
+     * 则在后台调用加载函数重新加载，在此期间继续返回旧值。
+     */
+    @Getter
+    @Setter
+    private double refreshAheadRatio = 0;
+
     /**
      * 缓存项的优先级。
      */
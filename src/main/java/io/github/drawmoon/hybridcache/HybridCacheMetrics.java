@@ -0,0 +1,260 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.github.drawmoon.hybridcache.utils.LatencyHistogram;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个在内存中累计指标的记录器，可以直接读取各层级的命中率、延迟分布和字节数。
+ * <p>
+ * 计数器使用 {@link LongAdder}，延迟使用 {@link LatencyHistogram}，记录指标时不加锁也不分配内存。
+ */
+public final class HybridCacheMetrics implements MetricsRecorder {
+    // 各层级的指标，按 {@link HybridCacheTier#ordinal()} 索引。
+    private final TierMetrics[] tiers;
+    // 加载函数的耗时。
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    // 加载函数抛出异常的次数。
+    private final LongAdder loadFailures = new LongAdder();
+    // 序列化的耗时。
+    private final LatencyHistogram serializationLatency = new LatencyHistogram();
+    // 反序列化的耗时。
+    private final LatencyHistogram deserializationLatency = new LatencyHistogram();
+    // 热点键被固定到内存缓存中的次数。
+    private final LongAdder hotKeyPins = new LongAdder();
+
+    /**
+     * 创建一个新的指标记录器实例。
+     */
+    public HybridCacheMetrics() {
+        this.tiers = new TierMetrics[HybridCacheTier.values().length];
+        for (int i = 0; i < this.tiers.length; i++) {
+            this.tiers[i] = new TierMetrics();
+        }
+    }
+
+    @Override
+    public void recordHit(HybridCacheTier tier) {
+        this.tiers[tier.ordinal()].hits.increment();
+    }
+
+    @Override
+    public void recordMiss(HybridCacheTier tier) {
+        this.tiers[tier.ordinal()].misses.increment();
+    }
+
+    @Override
+    public void recordEviction(HybridCacheTier tier) {
+        this.tiers[tier.ordinal()].evictions.increment();
+    }
+
+    @Override
+    public void recordError(HybridCacheTier tier, Throwable error) {
+        this.tiers[tier.ordinal()].errors.increment();
+    }
+
+    @Override
+    public void recordGetLatency(HybridCacheTier tier, long nanos) {
+        this.tiers[tier.ordinal()].getLatency.record(nanos);
+    }
+
+    @Override
+    public void recordSetLatency(HybridCacheTier tier, long nanos) {
+        this.tiers[tier.ordinal()].setLatency.record(nanos);
+    }
+
+    @Override
+    public void recordBytesRead(HybridCacheTier tier, long bytes) {
+        this.tiers[tier.ordinal()].bytesRead.add(bytes);
+    }
+
+    @Override
+    public void recordBytesWritten(HybridCacheTier tier, long bytes) {
+        this.tiers[tier.ordinal()].bytesWritten.add(bytes);
+    }
+
+    @Override
+    public void recordLoad(long nanos, boolean success) {
+        this.loadLatency.record(nanos);
+        if (!success) {
+            this.loadFailures.increment();
+        }
+    }
+
+    @Override
+    public void recordSerialization(long nanos) {
+        this.serializationLatency.record(nanos);
+    }
+
+    @Override
+    public void recordDeserialization(long nanos) {
+        this.deserializationLatency.record(nanos);
+    }
+
+    @Override
+    public void recordHotKeyPin(String key) {
+        this.hotKeyPins.increment();
+    }
+
+    /**
+     * 获取一个层级中的命中次数。
+     * @param tier 缓存的层级。
+     * @return 命中次数。
+     */
+    public long getHits(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].hits.sum();
+    }
+
+    /**
+     * 获取一个层级中的未命中次数。
+     * @param tier 缓存的层级。
+     * @return 未命中次数。
+     */
+    public long getMisses(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].misses.sum();
+    }
+
+    /**
+     * 获取一个层级的命中率。
+     * @param tier 缓存的层级。
+     * @return 命中次数占查找次数的比例，没有查找时返回 0。
+     */
+    public double getHitRate(HybridCacheTier tier) {
+        long hits = this.getHits(tier);
+        long requests = hits + this.getMisses(tier);
+        return requests > 0 ? (double) hits / requests : 0;
+    }
+
+    /**
+     * 获取一个层级中被淘汰的缓存项的数量。
+     * @param tier 缓存的层级。
+     * @return 被淘汰的缓存项的数量。
+     */
+    public long getEvictions(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].evictions.sum();
+    }
+
+    /**
+     * 获取一个层级中发生的错误次数。
+     * @param tier 缓存的层级。
+     * @return 错误次数。
+     */
+    public long getErrors(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].errors.sum();
+    }
+
+    /**
+     * 获取从一个层级中读取值的延迟分布，以纳秒为单位。
+     * @param tier 缓存的层级。
+     * @return 延迟分布。
+     */
+    public LatencyHistogram getGetLatency(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].getLatency;
+    }
+
+    /**
+     * 获取向一个层级中写入值的延迟分布，以纳秒为单位。
+     * @param tier 缓存的层级。
+     * @return 延迟分布。
+     */
+    public LatencyHistogram getSetLatency(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].setLatency;
+    }
+
+    /**
+     * 获取从一个层级中读取的字节数。
+     * @param tier 缓存的层级。
+     * @return 读取的字节数。
+     */
+    public long getBytesRead(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].bytesRead.sum();
+    }
+
+    /**
+     * 获取向一个层级中写入的字节数。
+     * @param tier 缓存的层级。
+     * @return 写入的字节数。
+     */
+    public long getBytesWritten(HybridCacheTier tier) {
+        return this.tiers[tier.ordinal()].bytesWritten.sum();
+    }
+
+    /**
+     * 获取加载函数的耗时分布，以纳秒为单位。
+     * @return 耗时分布，其数量即加载的次数。
+     */
+    public LatencyHistogram getLoadLatency() {
+        return this.loadLatency;
+    }
+
+    /**
+     * 获取加载函数抛出异常的次数。
+     * @return 加载失败的次数。
+     */
+    public long getLoadFailures() {
+        return this.loadFailures.sum();
+    }
+
+    /**
+     * 获取序列化的耗时分布，以纳秒为单位。
+     * @return 耗时分布。
+     */
+    public LatencyHistogram getSerializationLatency() {
+        return this.serializationLatency;
+    }
+
+    /**
+     * 获取反序列化的耗时分布，以纳秒为单位。
+     * @return 耗时分布。
+     */
+    public LatencyHistogram getDeserializationLatency() {
+        return this.deserializationLatency;
+    }
+
+    /**
+     * 获取热点键被固定到内存缓存中的次数。
+     * @return 固定的次数。
+     */
+    public long getHotKeyPins() {
+        return this.hotKeyPins.sum();
+    }
+
+    /**
+     * 一个层级的指标。
+     */
+    private static final class TierMetrics {
+        // 命中次数。
+        private final LongAdder hits = new LongAdder();
+        // 未命中次数。
+        private final LongAdder misses = new LongAdder();
+        // 被淘汰的缓存项的数量。
+        private final LongAdder evictions = new LongAdder();
+        // 错误次数。
+        private final LongAdder errors = new LongAdder();
+        // 读取的字节数。
+        private final LongAdder bytesRead = new LongAdder();
+        // 写入的字节数。
+        private final LongAdder bytesWritten = new LongAdder();
+        // 读取值的延迟。
+        private final LatencyHistogram getLatency = new LatencyHistogram();
+        // 写入值的延迟。
+        private final LatencyHistogram setLatency = new LatencyHistogram();
+    }
+}
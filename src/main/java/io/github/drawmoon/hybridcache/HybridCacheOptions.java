@@ -19,6 +19,8 @@
 package io.github.drawmoon.hybridcache;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -30,6 +32,70 @@ public class HybridCacheOptions {
     @Setter
     private long sizeLimit = 10_000;
 
+    /**
+     * 获取或设置内存缓存可以占用的最大字节数。
+     * <p>
+     * 大于 0 时按缓存项的键和值占用的字节数限制内存缓存的大小，并忽略 {@link #sizeLimit}。
+     */
+    @Getter
+    @Setter
+    private long maxMemoryBytes = 0;
+
+    /**
+     * 获取或设置单个缓存项的值可以存储在内存缓存中的最大字节数。
+     * <p>
+     * 大于 0 时，超过该大小的值不会存储在内存中，而是存储在 Redis 或磁盘、分布式对象存储中。
+     */
+    @Getter
+    @Setter
+    private long maxEntryBytes = 0;
+
+    /**
+     * 获取或设置内存缓存中为 {@link CacheItemPriority#HIGH} 的缓存项保留的容量的比例，取值范围为 0 到 1。
+     * <p>
+     * 保留区域中的缓存项不会因为其他缓存项的写入而被淘汰，保留区域已满时，其余的高优先级缓存项与普通缓存项一起按访问频率淘汰。
+     * {@link CacheItemPriority#NEVER_REMOVE} 的缓存项不占用容量，只在过期或被移除时离开内存缓存。
+     */
+    @Getter
+    @Setter
+    private double highPriorityRatio = 0.1;
+
+    /**
+     * 获取或设置内存缓存存储值的方式。
+     * <p>
+     * 在 {@link MemoryCacheMode#OFF_HEAP} 模式中，{@link #maxMemoryBytes} 表示堆外内存的容量，未指定时为 256 MB。
+     * 堆外内存通过 {@link java.nio.ByteBuffer#allocateDirect(int)} 分配，受 {@code -XX:MaxDirectMemorySize} 限制。
+     */
+    @Getter
+    @Setter
+    private MemoryCacheMode memoryCacheMode = MemoryCacheMode.HEAP;
+
+    /**
+     * 获取或设置堆外内存中每个 Slab 的字节数，也是单个值可以存储在堆外内存中的最大字节数。
+     */
+    @Getter
+    @Setter
+    private int offHeapSlabBytes = 16 * 1024 * 1024;
+
+    /**
+     * 获取或设置内存缓存的快照文件的路径，未指定时不保存快照。
+     * <p>
+     * 关闭时将内存缓存中最热的缓存项及其剩余过期时间、滑动过期时间和优先级保存到该文件，创建时从该文件重新加载
+     * 未过期的缓存项并删除该文件，使重新启动后的内存缓存不必从空开始。
+     * <p>
+     * 配置了 Redis 或分布式对象存储时，停止期间其他节点的更新和移除无法得知，因此不保存快照，并删除已有的快照文件。
+     */
+    @Getter
+    @Setter
+    private String snapshotPath;
+
+    /**
+     * 获取或设置快照中最多保存的缓存项的数量。
+     */
+    @Getter
+    @Setter
+    private int snapshotMaxEntries = 10_000;
+
     /**
      * 获取或设置过期物品连续扫描之间的最小时间长度。
      */
@@ -37,6 +103,74 @@ public class HybridCacheOptions {
     @Setter
     private Duration expirationScanFrequency = Duration.ofMinutes(10);
 
+    /**
+     * 决定是否将 Redis 或磁盘、分布式对象存储中命中的值提升到内存缓存中的策略。
+     * <p>
+     * 提升后的值在其他节点更新或移除后仍可能被读取，直到过期，因此默认不提升。启用提升时应同时设置
+     * {@link RedisCacheOptions#getInvalidationMode()}，使其他节点的写入和移除使内存缓存中的值失效。
+     */
+    @Getter
+    @Setter
+    private PromotionPolicy promotionPolicy = PromotionPolicy.never();
+
+    /**
+     * 用于在对象和缓存中的字节数组之间转换的序列化器，默认使用 BSON 格式。
+     */
+    @Getter
+    @Setter
+    private Serializer serializer = JacksonSerializer.bson();
+
+    /**
+     * 获取或设置写入 Redis 或磁盘、分布式对象存储之前压缩值的方式，内存缓存中的值不压缩。
+     * <p>
+     * 压缩后的值带有标记压缩方式的头部，读取时自动解压，未压缩的旧数据仍然可以读取。
+     */
+    @Getter
+    @Setter
+    private CompressionCodec compressionCodec = CompressionCodec.NONE;
+
+    /**
+     * 获取或设置需要压缩的值的最小字节数。
+     */
+    @Getter
+    @Setter
+    private int compressionThreshold = 1024;
+
+    /**
+     * 获取或设置压缩级别，取值范围为 0 到 9，-1 表示默认级别。
+     */
+    @Getter
+    @Setter
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * 本地磁盘缓存的配置选项，默认不启用。
+     */
+    @Getter
+    @Setter
+    private DiskCacheOptions diskCacheOptions = new DiskCacheOptions();
+
+    /**
+     * 延迟写入的配置选项，默认不启用。
+     */
+    @Getter
+    @Setter
+    private WriteBehindOptions writeBehindOptions = new WriteBehindOptions();
+
+    /**
+     * 热点键检测的配置选项，默认不启用。
+     */
+    @Getter
+    @Setter
+    private HotKeyOptions hotKeyOptions = new HotKeyOptions();
+
+    /**
+     * 自动放置的配置选项，默认不启用。
+     */
+    @Getter
+    @Setter
+    private PlacementOptions placementOptions = new PlacementOptions();
+
     /**
      * Redis 缓存的配置选项。
      */
@@ -50,4 +184,23 @@ public class HybridCacheOptions {
     @Getter
     @Setter
     private HybridStoreOption hybridStoreOption = new HybridStoreOption();
+
+    /**
+     * 用于执行磁盘或分布式对象存储 I/O 的执行器。
+     * <p>
+     * 如果未指定，则由 {@link HybridCache} 创建一个专用的线程池，并在关闭时释放。
+     */
+    @Getter
+    @Setter
+    private Executor executor;
+
+    /**
+     * 获取或设置记录各层级的命中、延迟、字节数和错误等指标的记录器，默认不记录。
+     * <p>
+     * 可以使用 {@link HybridCacheMetrics} 在内存中累计指标，
+     * 或使用 {@link io.github.drawmoon.hybridcache.micrometer.MicrometerMetricsRecorder} 将指标发布到 Micrometer。
+     */
+    @Getter
+    @Setter
+    private MetricsRecorder metricsRecorder = MetricsRecorder.noop();
 }
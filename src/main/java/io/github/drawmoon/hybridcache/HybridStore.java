@@ -19,24 +19,36 @@
 package io.github.drawmoon.hybridcache;
 
 import com.aventrix.jnanoid.jnanoid.NanoIdUtils;
+import io.github.drawmoon.hybridcache.utils.HashUtils;
 import io.minio.BucketExistsArgs;
 import io.minio.GetObjectArgs;
-import io.minio.GetObjectResponse;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import io.minio.errors.ErrorResponseException;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.function.Consumer;
 import org.apache.commons.lang3.StringUtils;
 
@@ -44,12 +56,27 @@ import org.apache.commons.lang3.StringUtils;
  * 一个混合存储，它将数据存储在磁盘、分布式对象存储上。
  */
 public class HybridStore {
+    // 读取数据时使用的缓冲区大小。
+    private static final int BUFFER_SIZE = 8192;
+    // 缓存项所在的目录。
+    private static final String ENTRY_AREA = "hybridcache";
+    // 每次从输入流传输到文件的最大字节数。
+    private static final long TRANSFER_SIZE = 1024 * 1024;
+    // 上传长度未知的数据时每个分片的字节数。
+    private static final long PART_SIZE = 10L * 1024 * 1024;
+
     // 用于混合存储的配置选项。
     private HybridStoreOption options;
 
     // Minio 客户端。
     private MinioClient minioClient;
 
+    // 记录错误的记录器。
+    private final MetricsRecorder metricsRecorder;
+
+    // 分布式对象存储的断路器。
+    private final CircuitBreaker circuitBreaker;
+
     /**
      * 创建一个新的混合存储实例。
      */
@@ -76,7 +103,18 @@ public class HybridStore {
      * @param options 用于配置混合存储。
      */
     public HybridStore(HybridStoreOption options) {
+        this(options, MetricsRecorder.noop());
+    }
+
+    /**
+     * 创建一个新的混合存储实例。
+     * @param options 用于配置混合存储。
+     * @param metricsRecorder 记录错误的记录器。
+     */
+    HybridStore(HybridStoreOption options, MetricsRecorder metricsRecorder) {
         this.options = options;
+        this.metricsRecorder = metricsRecorder;
+        this.circuitBreaker = new CircuitBreaker(options.getCircuitBreakerOptions(), false);
         if (!options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
             try {
                 this.minioClient = MinioClient.builder()
@@ -90,62 +128,225 @@ public class HybridStore {
                         .region(options.getRegion())
                         .build())) {
                     this.options.setStorePlace(HybridStorePlace.LOCAL);
+                } else {
+                    this.options.setStorePlace(HybridStorePlace.DISTRIBUTED);
                 }
-
-                this.options.setStorePlace(HybridStorePlace.DISTRIBUTED);
             } catch (Exception e) {
                 this.options.setStorePlace(HybridStorePlace.LOCAL);
             }
         }
     }
 
+    /**
+     * 判断数据是否存储在所有节点共享的分布式对象存储中。
+     * @return 如果连接到了分布式对象存储，则返回 {@code true}；数据存储在当前节点的磁盘上时返回 {@code false}。
+     */
+    boolean isDistributed() {
+        return this.options.getStorePlace().equals(HybridStorePlace.DISTRIBUTED);
+    }
+
     /**
      * 获取一个具有给定键的值。
      * @param key 一个字符串，用于识别所处位置的值。
      * @return 所处位置的值或 {@code null}。
      */
     public byte[] get(String key) {
-        String realPath = this.getRealPath(key);
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            InputStream inputStream = null;
-            try {
-                int byteSize = 0;
-                if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
-                    inputStream = new BufferedInputStream(Files.newInputStream(Paths.get(realPath)));
-                    byteSize = inputStream.available();
-                } else {
-                    GetObjectResponse response = minioClient.getObject(GetObjectArgs.builder()
-                            .bucket(this.options.getBucket())
-                            .region(this.options.getRegion())
-                            .object(realPath)
-                            .build());
+        try {
+            return this.read(this.getRealPath(key));
+        } catch (Exception e) {
+            this.recordError(e);
+        }
+
+        return new byte[0];
+    }
+
+    /**
+     * 获取一个通过 {@link #putEntry(String, byte[])} 保存的具有给定键的缓存项。
+     * @param key 缓存项的键。
+     * @return 缓存项的值，如果未找到则返回 {@code null}。
+     */
+    public byte[] getEntry(String key) {
+        try {
+            return this.read(this.getEntryPath(key));
+        } catch (Exception e) {
+            this.recordError(e);
+        }
+
+        return null;
+    }
+
+    /**
+     * 以给定的键保存一个缓存项，覆盖该键已有的值。
+     * <p>
+     * 与 {@link #put(String, byte[])} 不同，缓存项的位置由键的 SHA-256 摘要确定，并按摘要的前两个字节分为两级目录，
+     * 因此相同的键总是对应相同的位置，可以直接通过键读取、覆盖和移除。在本地存储模式中，
+     * 值先写入临时文件再原子地替换原文件，读取者不会看到写入一半的值。
+     * @param key 缓存项的键。
+     * @param data 缓存项的值。
+     */
+    public void putEntry(String key, byte[] data) {
+        try {
+            this.write(this.getEntryPath(key), new ByteArrayInputStream(data), data.length, "application/octet-stream");
+        } catch (Exception e) {
+            this.metricsRecorder.recordError(HybridCacheTier.STORE, e);
+        }
+    }
+
+    /**
+     * 移除一个具有给定键的缓存项（如果有的话）。
+     * @param key 缓存项的键。
+     */
+    public void removeEntry(String key) {
+        try {
+            this.delete(this.getEntryPath(key));
+        } catch (Exception e) {
+            this.metricsRecorder.recordError(HybridCacheTier.STORE, e);
+        }
+    }
+
+    /**
+     * 获取一个具有给定键的值的只读缓冲区。
+     * <p>
+     * 在本地存储模式中，不小于 {@link HybridStoreOption#getMmapThreshold()} 的文件通过内存映射读取，
+     * 返回的缓冲区直接引用页缓存而不复制到堆内存中，映射在缓冲区被垃圾回收时释放。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 所处位置的值的只读缓冲区或 {@code null}。
+     */
+    public ByteBuffer getBuffer(String key) {
+        if (!this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
+            try (InputStream inputStream = this.openRead(key)) {
+                return inputStream != null
+                        ? ByteBuffer.wrap(readAll(inputStream)).asReadOnlyBuffer()
+                        : null;
+            } catch (Exception e) {
+                this.recordError(e);
+                return null;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(this.getRealPath(key)), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= this.options.getMmapThreshold()) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // 继续读取直到文件末尾
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        } catch (Exception e) {
+            this.recordError(e);
+        }
+
+        return null;
+    }
 
-                    inputStream = response;
-                    byteSize = Integer.parseInt(response.headers().get("Content-Length"));
+    /**
+     * 将具有给定键的值写入到一个通道中。
+     * <p>
+     * 在本地存储模式中通过 {@link FileChannel#transferTo(long, long, WritableByteChannel)} 传输，
+     * 当目标是套接字或文件通道时，数据可以不经过用户空间直接由操作系统复制。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param target 目标通道，不会被关闭。
+     * @return 写入的字节数，如果未找到该值则返回 -1。
+     */
+    public long transferTo(String key, WritableByteChannel target) {
+        if (!this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
+            try (InputStream inputStream = this.openRead(key)) {
+                if (inputStream == null) {
+                    return -1;
                 }
 
-                if (byteSize == 0) {
-                    return new byte[0];
+                ReadableByteChannel source = Channels.newChannel(inputStream);
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long position = 0;
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        position += target.write(buffer);
+                    }
+                    buffer.clear();
                 }
+                return position;
+            } catch (Exception e) {
+                this.recordError(e);
+                return -1;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(this.getRealPath(key)), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return position;
+        } catch (Exception e) {
+            this.recordError(e);
+        }
 
-                byte[] bytes = new byte[byteSize];
+        return -1;
+    }
 
-                int length;
-                while ((length = inputStream.read(bytes)) != -1) {
-                    outputStream.write(bytes, 0, length);
-                }
+    /**
+     * 打开一个用于读取具有给定键的值的输入流，不会将整个值读入内存。
+     * <p>
+     * 调用者负责关闭返回的输入流。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 所处位置的值的输入流或 {@code null}。
+     */
+    public InputStream openRead(String key) {
+        return this.openRead(key, 0, -1);
+    }
 
-                return outputStream.toByteArray();
-            } finally {
-                if (inputStream != null) {
-                    inputStream.close();
+    /**
+     * 打开一个用于读取具有给定键的值的一部分的输入流，不会将整个值读入内存。
+     * <p>
+     * 调用者负责关闭返回的输入流。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param offset 开始读取的位置。
+     * @param length 最多读取的字节数，小于 0 时读取到末尾。
+     * @return 所处位置的值的输入流或 {@code null}。
+     */
+    public InputStream openRead(String key, long offset, long length) {
+        if (length == 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        String realPath = this.getRealPath(key);
+        try {
+            if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
+                SeekableByteChannel channel = Files.newByteChannel(Paths.get(realPath), StandardOpenOption.READ);
+                try {
+                    channel.position(offset);
+                } catch (Exception e) {
+                    channel.close();
+                    throw e;
                 }
+
+                InputStream inputStream = Channels.newInputStream(channel);
+                return length < 0 ? inputStream : new BoundedInputStream(inputStream, length);
+            }
+
+            GetObjectArgs.Builder builder = GetObjectArgs.builder()
+                    .bucket(this.options.getBucket())
+                    .region(this.options.getRegion())
+                    .object(realPath);
+            if (offset > 0 || length > 0) {
+                builder.offset(offset);
+            }
+            if (length > 0) {
+                builder.length(length);
             }
+
+            return this.remote(() -> this.minioClient.getObject(builder.build()));
         } catch (Exception e) {
-            // ignore
+            this.recordError(e);
         }
 
-        return new byte[0];
+        return null;
     }
 
     /**
@@ -182,33 +383,27 @@ public class HybridStore {
      * @return 返回一个字符串，用于识别所处位置的值。
      */
     public String put(String filename, byte[] data, String area, String contentType) {
+        return this.put(filename, new ByteArrayInputStream(data), data.length, area, contentType);
+    }
+
+    /**
+     * 将输入流中的数据保存到磁盘或上传至一个分布式对象存储，不会将整个数据读入内存。
+     * <p>
+     * 上传至分布式对象存储时，较大的数据通过分片上传。输入流不会被关闭。
+     * @param filename 文件名称。
+     * @param data 文件的数据。
+     * @param length 数据的字节数，小于 0 表示未知。
+     * @param area 用于表示一个目录的分组。
+     * @param contentType 文件的文本类型。
+     * @return 返回一个字符串，用于识别所处位置的值。
+     */
+    public String put(String filename, InputStream data, long length, String area, String contentType) {
         String name = this.generateKey(filename, area);
 
         try {
-            String realPath = this.getRealPath(name);
-            if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
-                Path path = Paths.get(realPath);
-
-                // 如果不存在目录，则创建该目录
-                Files.createDirectories(path.getParent());
-
-                try (BufferedOutputStream outputStream = new BufferedOutputStream(
-                        Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))) {
-                    outputStream.write(data);
-                }
-            } else {
-                try (InputStream inputStream = new ByteArrayInputStream(data)) {
-                    this.minioClient.putObject(PutObjectArgs.builder()
-                            .bucket(this.options.getBucket())
-                            .region(this.options.getRegion())
-                            .object(realPath)
-                            .stream(inputStream, inputStream.available(), -1)
-                            .contentType(contentType)
-                            .build());
-                }
-            }
+            this.write(this.getRealPath(name), data, length, contentType);
         } catch (Exception e) {
-            // ignore
+            this.metricsRecorder.recordError(HybridCacheTier.STORE, e);
         }
 
         return name;
@@ -221,8 +416,15 @@ public class HybridStore {
      * @return 返回一个字符串，用于识别所处位置的值。
      */
     public String copy(String filename, String target) {
-        byte[] bytes = this.get(target);
-        return this.put(filename, bytes);
+        try (InputStream inputStream = this.openRead(target)) {
+            if (inputStream != null) {
+                return this.put(filename, inputStream, -1, "default", "application/octet-stream");
+            }
+        } catch (Exception e) {
+            this.metricsRecorder.recordError(HybridCacheTier.STORE, e);
+        }
+
+        return this.put(filename, new byte[0]);
     }
 
     /**
@@ -230,20 +432,194 @@ public class HybridStore {
      * @param key 一个字符串，用于识别所处位置的值。
      */
     public void remove(String key) {
-        String realPath = this.getRealPath(key);
         try {
-            if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
-                Files.delete(Paths.get(realPath));
-            } else {
+            this.delete(this.getRealPath(key));
+        } catch (Exception e) {
+            this.metricsRecorder.recordError(HybridCacheTier.STORE, e);
+        }
+    }
+
+    /**
+     * 从磁盘或分布式存储中读取一个位置的所有数据。
+     * @param realPath 磁盘或分布式存储中真实的位置。
+     * @return 该位置的数据。
+     * @throws Exception 未找到该位置或读取失败时引发的异常。
+     */
+    private byte[] read(String realPath) throws Exception {
+        if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
+            try (FileChannel channel = FileChannel.open(Paths.get(realPath), StandardOpenOption.READ)) {
+                byte[] bytes = new byte[Math.toIntExact(channel.size())];
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                    // 继续读取直到文件末尾
+                }
+
+                return buffer.hasRemaining() ? Arrays.copyOf(bytes, buffer.position()) : bytes;
+            }
+        }
+
+        return this.remote(() -> {
+            try (InputStream inputStream = this.minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(this.options.getBucket())
+                    .region(this.options.getRegion())
+                    .object(realPath)
+                    .build())) {
+                return readAll(inputStream);
+            }
+        });
+    }
+
+    /**
+     * 将输入流中的数据写入磁盘或分布式存储中的一个位置。
+     * @param realPath 磁盘或分布式存储中真实的位置。
+     * @param data 文件的数据。
+     * @param length 数据的字节数，小于 0 表示未知。
+     * @param contentType 文件的文本类型。
+     * @throws Exception 写入失败时引发的异常。
+     */
+    private void write(String realPath, InputStream data, long length, String contentType) throws Exception {
+        if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
+            Path path = Paths.get(realPath);
+
+            // 如果不存在目录，则创建该目录
+            Files.createDirectories(path.getParent());
+
+            this.writeLocal(path, data);
+        } else {
+            this.remote(
+                    () -> this.minioClient.putObject(PutObjectArgs.builder()
+                            .bucket(this.options.getBucket())
+                            .region(this.options.getRegion())
+                            .object(realPath)
+                            .stream(data, length, length < 0 ? PART_SIZE : -1)
+                            .contentType(contentType)
+                            .build()));
+        }
+    }
+
+    /**
+     * 从磁盘或分布式存储中移除一个位置的数据。
+     * @param realPath 磁盘或分布式存储中真实的位置。
+     * @throws Exception 移除失败时引发的异常。
+     */
+    private void delete(String realPath) throws Exception {
+        if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
+            Files.deleteIfExists(Paths.get(realPath));
+        } else {
+            this.remote(() -> {
                 this.minioClient.removeObject(RemoveObjectArgs.builder()
                         .bucket(this.options.getBucket())
                         .region(this.options.getRegion())
                         .object(realPath)
                         .build());
-            }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 在断路器允许时调用分布式对象存储，并将调用的结果和耗时记录到断路器中。
+     * <p>
+     * 对象不存在等错误响应说明分布式对象存储是可用的，不被记录为失败。
+     * @param call 调用分布式对象存储的函数。
+     * @param <T> 调用的结果类型。
+     * @return 调用的结果。
+     * @throws Exception 断路器打开时引发 {@link CircuitBreakerOpenException} 异常，或调用失败时引发的异常。
+     */
+    private <T> T remote(Callable<T> call) throws Exception {
+        if (!this.circuitBreaker.allowRequest()) {
+            throw new CircuitBreakerOpenException(HybridCacheTier.STORE);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            this.circuitBreaker.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (ErrorResponseException e) {
+            this.circuitBreaker.onSuccess(System.nanoTime() - start);
+            throw e;
         } catch (Exception e) {
-            // ignore
+            this.circuitBreaker.onFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * 记录一个读取磁盘或分布式对象存储时引发的错误，数据不存在时视为未命中而不记录。
+     * @param e 读取时引发的异常。
+     */
+    private void recordError(Exception e) {
+        if (!isNotFound(e)) {
+            this.metricsRecorder.recordError(HybridCacheTier.STORE, e);
+        }
+    }
+
+    /**
+     * 判断一个异常是否表示磁盘或分布式对象存储中不存在该位置的数据。
+     * @param e 读取时引发的异常。
+     * @return 如果本地文件或对象不存在，则返回 {@code true}。
+     */
+    private static boolean isNotFound(Exception e) {
+        if (e instanceof NoSuchFileException) {
+            return true;
+        }
+        return e instanceof ErrorResponseException
+                && "NoSuchKey"
+                        .equals(((ErrorResponseException) e).errorResponse().code());
+    }
+
+    /**
+     * 通过文件通道将输入流中的数据写入本地文件，并按同步策略将数据同步到存储设备。
+     * @param path 文件的路径。
+     * @param data 文件的数据。
+     * @throws IOException 可能会引发 {@link IOException} 异常。
+     */
+    private void writeLocal(Path path, InputStream data) throws IOException {
+        // 先写入同一目录中的临时文件，再替换原文件
+        Path temp = path.resolveSibling(path.getFileName() + "." + NanoIdUtils.randomNanoId() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(data);
+            long position = 0;
+            long count;
+            while ((count = channel.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+                position += count;
+            }
+
+            HybridStoreSyncPolicy syncPolicy = this.options.getSyncPolicy();
+            if (syncPolicy == HybridStoreSyncPolicy.DATA) {
+                channel.force(false);
+            } else if (syncPolicy == HybridStoreSyncPolicy.ALL) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 读取输入流中的所有数据。
+     * @param inputStream 输入流。
+     * @return 输入流中的所有数据。
+     * @throws IOException 可能会引发 {@link IOException} 异常。
+     */
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
         }
+
+        return outputStream.toByteArray();
     }
 
     /**
@@ -256,12 +632,7 @@ public class HybridStore {
         SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
 
         // 如果没有指定目录，则获取系统的临时目录
-        String baseDir = this.options.getStorePlace().equals(HybridStorePlace.LOCAL) ? this.options.getBucket() : "";
-        if (StringUtils.isBlank(baseDir)) {
-            baseDir = System.getProperty("java.io.tmpdir");
-        }
-
-        String key = Paths.get(baseDir, area, format.format(new Date()), NanoIdUtils.randomNanoId(), filename)
+        String key = Paths.get(this.getBaseDir(), area, format.format(new Date()), NanoIdUtils.randomNanoId(), filename)
                 .toString();
         if (StringUtils.isNotBlank(this.options.getKeyPrefix())) {
             return this.options.getKeyPrefix() + key;
@@ -270,6 +641,35 @@ public class HybridStore {
         return key;
     }
 
+    /**
+     * 获取一个缓存项在磁盘或分布式存储中真实的位置。
+     * @param key 缓存项的键。
+     * @return 返回磁盘或分布式存储中真实的位置。
+     */
+    private String getEntryPath(String key) {
+        String hash = HashUtils.sha256Hex(key);
+        String first = hash.substring(0, 2);
+        String second = hash.substring(2, 4);
+        if (this.options.getStorePlace().equals(HybridStorePlace.LOCAL)) {
+            return Paths.get(this.getBaseDir(), ENTRY_AREA, first, second, hash).toString();
+        }
+
+        return String.join("/", ENTRY_AREA, first, second, hash);
+    }
+
+    /**
+     * 获取本地存储的根目录。
+     * @return 本地存储的根目录，如果没有指定存储桶，则为系统的临时目录。
+     */
+    private String getBaseDir() {
+        String baseDir = this.options.getStorePlace().equals(HybridStorePlace.LOCAL) ? this.options.getBucket() : "";
+        if (StringUtils.isBlank(baseDir)) {
+            baseDir = System.getProperty("java.io.tmpdir");
+        }
+
+        return baseDir;
+    }
+
     /**
      * 获取磁盘或分布式存储中真实的位置。
      * @param key 一个字符串，用于识别所处位置的值。
@@ -282,4 +682,60 @@ public class HybridStore {
 
         return key;
     }
+
+    /**
+     * 一个最多读取给定字节数的输入流。
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        // 剩余可以读取的字节数。
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (this.remaining <= 0) {
+                return -1;
+            }
+
+            int b = super.read();
+            if (b != -1) {
+                this.remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (this.remaining <= 0) {
+                return -1;
+            }
+
+            int count = super.read(b, off, (int) Math.min(len, this.remaining));
+            if (count > 0) {
+                this.remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(Math.min(n, this.remaining));
+            this.remaining -= count;
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), this.remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
 }
@@ -72,4 +72,25 @@ public class HybridStoreOption {
     @Getter
     @Setter
     private String keyPrefix;
+
+    /**
+     * 在本地存储模式中，写入数据后将数据同步到存储设备的方式。
+     */
+    @Getter
+    @Setter
+    private HybridStoreSyncPolicy syncPolicy = HybridStoreSyncPolicy.NONE;
+
+    /**
+     * 在本地存储模式中，通过内存映射读取文件的最小字节数，更小的文件直接读入堆内存。
+     */
+    @Getter
+    @Setter
+    private long mmapThreshold = 1024 * 1024;
+
+    /**
+     * 在分布式存储模式中，分布式对象存储的断路器选项。
+     */
+    @Getter
+    @Setter
+    private CircuitBreakerOptions circuitBreakerOptions = new CircuitBreakerOptions();
 }
@@ -0,0 +1,283 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import com.aventrix.jnanoid.jnanoid.NanoIdUtils;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 在多个节点之间传播内存缓存失效的总线。
+ * <p>
+ * 在 {@link InvalidationMode#PUBSUB} 模式中，写入或移除的键在一个时间间隔内合并，通过一条消息发布到 Redis 频道，
+ * 消息中带有发布节点的标识，节点会忽略自己发布的消息。在 {@link InvalidationMode#TRACKING} 模式中，
+ * 由 Redis 在以前缀开头的键被其他连接修改时推送失效消息，无论当前节点是否读取过这些键。
+ * 连接断开期间的失效消息会丢失，因此重新连接后重新开启跟踪，并使当前节点中的所有键失效。
+ */
+final class InvalidationBus {
+    // 每条消息中最多包含的键的数量。
+    private static final int MAX_BATCH_SIZE = 512;
+
+    // 当前节点的标识。
+    private final String nodeId = NanoIdUtils.randomNanoId();
+
+    // 用于发布消息的连接器。
+    private final RedisConnector connector;
+    // 用于订阅频道的连接。
+    private StatefulRedisPubSubConnection<byte[], byte[]> pubSubConnection;
+    // 用于接收客户端缓存失效消息的监听器。
+    private PushListener pushListener;
+    // 开启客户端缓存跟踪的参数。
+    private TrackingArgs trackingArgs;
+    // 是否已经关闭。
+    private volatile boolean closed;
+
+    // 用于发布失效消息的频道。
+    private final byte[] channel;
+    // 合并失效消息的时间间隔，以毫秒为单位。
+    private final long batchInterval;
+    // 等待发布的键。
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // 是否已经安排了发布。
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // 用于执行延迟发布的调度器。
+    private final ScheduledExecutorService scheduler;
+
+    // 使当前节点中的一个键失效。
+    private final Consumer<String> invalidator;
+    // 使当前节点中的所有键失效。
+    private final Runnable invalidatorAll;
+
+    /**
+     * 创建一个新的失效总线实例，并开始接收其他节点的失效消息。
+     * @param connector Redis 连接器，其中用于读取和写入缓存的连接在 {@link InvalidationMode#TRACKING} 模式中被跟踪。
+     * @param options Redis 缓存选项。
+     * @param scheduler 用于执行延迟发布的调度器。
+     * @param invalidator 使当前节点中的一个键失效。
+     * @param invalidatorAll 使当前节点中的所有键失效。
+     */
+    InvalidationBus(
+            RedisConnector connector,
+            RedisCacheOptions options,
+            ScheduledExecutorService scheduler,
+            Consumer<String> invalidator,
+            Runnable invalidatorAll) {
+        this.connector = connector;
+        this.channel = options.getInvalidationChannel().getBytes(StandardCharsets.UTF_8);
+        this.batchInterval = options.getInvalidationBatchInterval().toMillis();
+        this.scheduler = scheduler;
+        this.invalidator = invalidator;
+        this.invalidatorAll = invalidatorAll;
+
+        if (options.getInvalidationMode() == InvalidationMode.PUBSUB) {
+            this.pubSubConnection = connector.connectPubSub();
+            this.pubSubConnection.addListener(new RedisPubSubAdapter<byte[], byte[]>() {
+                @Override
+                public void message(byte[] channel, byte[] message) {
+                    onMessage(message);
+                }
+            });
+            this.pubSubConnection.sync().subscribe(this.channel);
+        } else if (options.getInvalidationMode() == InvalidationMode.TRACKING) {
+            this.pushListener = this::onPushMessage;
+            // 广播模式跟踪所有以前缀开头的键，包括当前节点写入而没有从 Redis 读取过的键
+            this.trackingArgs = TrackingArgs.Builder.enabled().bcast().noloop();
+            if (StringUtils.isNotEmpty(options.getTrackingPrefix())) {
+                this.trackingArgs.prefixes(options.getTrackingPrefix());
+            }
+            for (StatefulRedisConnection<byte[], byte[]> connection : connector.getTrackedConnections()) {
+                connection.addListener(this.pushListener);
+                this.enableTracking(connection).join();
+            }
+            connector.addReconnectListener(connection -> scheduler.execute(() -> this.onReconnected(connection)));
+        }
+    }
+
+    /**
+     * 通知其他节点一个键已被写入或移除。
+     * @param key 一个字符串，用于识别所处位置的值。
+     */
+    void publish(String key) {
+        if (this.pubSubConnection == null) {
+            return;
+        }
+
+        this.pending.add(key);
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.scheduler.schedule(this::flush, this.batchInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 通知其他节点多个键已被写入或移除。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     */
+    void publishAll(Iterable<String> keys) {
+        keys.forEach(this::publish);
+    }
+
+    /**
+     * 停止接收失效消息，并关闭订阅连接。
+     */
+    void close() {
+        this.closed = true;
+        if (this.pubSubConnection != null) {
+            this.pubSubConnection.close();
+        }
+        if (this.pushListener != null) {
+            this.connector.getTrackedConnections().forEach(connection -> connection.removeListener(this.pushListener));
+        }
+    }
+
+    /**
+     * 在一个连接上开启客户端缓存跟踪。
+     * @param connection 被跟踪的连接。
+     * @return 一个在 Redis 回复时结束的 {@link CompletableFuture}。
+     */
+    private CompletableFuture<String> enableTracking(StatefulRedisConnection<byte[], byte[]> connection) {
+        // 连接可能关闭了自动刷新，需要手动发送命令
+        RedisFuture<String> future = connection.async().clientTracking(this.trackingArgs);
+        connection.flushCommands();
+        return future.toCompletableFuture();
+    }
+
+    /**
+     * 在被跟踪的连接重新连接后重新开启跟踪，并使当前节点中的所有键失效。
+     * <p>
+     * Redis 在连接断开时停止跟踪，断开期间其他节点的修改不会被推送，因此在跟踪重新开启之后清空当前节点中的值。
+     * @param connection 重新连接的连接。
+     */
+    private void onReconnected(StatefulRedisConnection<byte[], byte[]> connection) {
+        if (this.closed) {
+            return;
+        }
+
+        this.enableTracking(connection).whenCompleteAsync((reply, e) -> this.invalidatorAll.run(), this.scheduler);
+    }
+
+    /**
+     * 将等待发布的键分批发布到频道。
+     */
+    private void flush() {
+        this.scheduled.set(false);
+
+        List<String> keys = new ArrayList<>();
+        Iterator<String> iterator = this.pending.iterator();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next());
+            iterator.remove();
+
+            if (keys.size() == MAX_BATCH_SIZE || !iterator.hasNext()) {
+                try {
+                    byte[] message = encode(this.nodeId, keys);
+                    this.connector.enqueue(this.channel, (commands, channel) -> commands.publish(channel, message));
+                } catch (Exception e) {
+                    // ignore
+                }
+                keys.clear();
+            }
+        }
+    }
+
+    /**
+     * 处理从频道接收的失效消息。
+     * @param message 消息。
+     */
+    private void onMessage(byte[] message) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(message))) {
+            if (this.nodeId.equals(input.readUTF())) {
+                return;
+            }
+
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[input.readInt()];
+                input.readFully(key);
+                this.invalidator.accept(new String(key, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * 处理 Redis 推送的客户端缓存失效消息。
+     * @param message 推送消息。
+     */
+    private void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List) {
+            for (Object key : (List<?>) keys) {
+                this.invalidator.accept((String) key);
+            }
+        } else {
+            // 键为空表示 Redis 执行了 FLUSHALL 或 FLUSHDB
+            this.invalidatorAll.run();
+        }
+    }
+
+    /**
+     * 将节点标识和键编码为失效消息。
+     * @param nodeId 发布节点的标识。
+     * @param keys 失效的键。
+     * @return 消息。
+     * @throws IOException 可能会引发 {@link IOException} 异常。
+     */
+    private static byte[] encode(String nodeId, List<String> keys) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (DataOutputStream data = new DataOutputStream(output)) {
+            data.writeUTF(nodeId);
+            data.writeInt(keys.size());
+            for (String key : keys) {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                data.writeInt(bytes.length);
+                data.write(bytes);
+            }
+        }
+        return output.toByteArray();
+    }
+}
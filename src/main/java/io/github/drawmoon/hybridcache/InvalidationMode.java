@@ -0,0 +1,43 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+/**
+ * 表示 {@link HybridCache} 在多个节点之间使内存缓存中的值失效的方式。
+ */
+public enum InvalidationMode {
+    /**
+     * 表示不通知其他节点，内存缓存中的值在过期之前可能是过时的。
+     */
+    NONE,
+
+    /**
+     * 表示在写入或移除值之后通过 Redis 的发布订阅通知其他节点，失效消息按时间间隔合并发布。
+     */
+    PUBSUB,
+
+    /**
+     * 表示使用 Redis 6 的客户端缓存（{@code CLIENT TRACKING}）的广播模式，由 Redis 在其他连接修改了以
+     * {@link RedisCacheOptions#getTrackingPrefix()} 开头的键时通知当前节点。
+     * <p>
+     * 需要 RESP3 协议，重新连接到 Redis 后重新开启跟踪，并使内存缓存中的所有值失效。不支持
+     * {@link RedisTopology#CLUSTER}，在集群中使用时创建 {@link HybridCache} 会引发 {@link IllegalArgumentException} 异常。
+     */
+    TRACKING
+}
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import de.undercouch.bson4jackson.BsonFactory;
+
+/**
+ * 一个基于 Jackson {@link ObjectMapper} 的序列化器。
+ * <p>
+ * {@link ObjectMapper} 在所有调用之间共享，并按类型缓存 {@link ObjectReader} 和 {@link ObjectWriter}，
+ * 以复用 Jackson 的序列化器缓存。可以传入使用其他数据格式的 {@link ObjectMapper}，例如 Smile 或 CBOR。
+ * <p>
+ * 字节数组不经过转换。
+ */
+public class JacksonSerializer implements Serializer {
+    // 使用 BSON 格式的共享实例。
+    private static final JacksonSerializer BSON = new JacksonSerializer(new ObjectMapper(new BsonFactory()));
+
+    // 用于序列化的对象映射器。
+    private final ObjectMapper mapper;
+    // 按类型缓存的读取器。
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    // 按类型缓存的写入器。
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * 创建一个新的序列化器实例。
+     * @param mapper 用于序列化的对象映射器，创建后不应再修改其配置。
+     */
+    public JacksonSerializer(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * 获取使用 BSON 格式的共享序列化器。
+     * @return 使用 BSON 格式的序列化器。
+     */
+    public static JacksonSerializer bson() {
+        return BSON;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws IOException {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+
+        Class<?> clazz = value != null ? value.getClass() : Object.class;
+        return this.writers.computeIfAbsent(clazz, this.mapper::writerFor).writeValueAsBytes(value);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> clazz) throws IOException {
+        if (clazz.isAssignableFrom(byte[].class)) {
+            return clazz.cast(bytes);
+        }
+
+        return this.readers.computeIfAbsent(clazz, this.mapper::readerFor).readValue(bytes);
+    }
+}
@@ -0,0 +1,593 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.drawmoon.hybridcache.utils.SlabAllocator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 一个内存缓存，它为每个缓存项单独记录过期时间。
+ * <p>
+ * 缓存项可以同时设置绝对过期时间和滑动过期时间，设置了滑动过期时间的缓存项每次被读取时通过 Caffeine 的可变过期时间延长，
+ * 但不超过其绝对过期时间。
+ * <p>
+ * 如果指定了 {@link HybridCacheOptions#getMaxMemoryBytes()}，则按缓存项占用的字节数限制缓存的大小，
+ * 否则按缓存项的数量限制。
+ * <p>
+ * 缓存项的优先级决定其是否参与淘汰：{@link CacheItemPriority#NEVER_REMOVE} 的缓存项权重为 0，从不因容量而被淘汰；
+ * {@link CacheItemPriority#HIGH} 的缓存项优先放入按 {@link HybridCacheOptions#getHighPriorityRatio()} 保留的区域，
+ * 保留区域中的缓存项同样不参与淘汰，其余的缓存项在剩余的容量中按访问频率淘汰。
+ * <p>
+ * 在 {@link MemoryCacheMode#OFF_HEAP} 模式中，值存储在 {@link SlabAllocator} 分配的堆外内存中，
+ * Caffeine 只作为键到值的位置的索引，并负责过期和淘汰，缓存项被移除时释放其存储块。
+ */
+final class MemoryCache {
+    // 每个缓存项除键和值以外的估计内存开销，以字节为单位。
+    private static final int ENTRY_OVERHEAD = 96;
+    // 未指定最大字节数时，堆外内存的默认容量。
+    private static final long DEFAULT_OFF_HEAP_BYTES = 256L * 1024 * 1024;
+    // 无法分配堆外内存时，淘汰最冷的缓存项并重试的次数。
+    private static final int EVICTION_ATTEMPTS = 4;
+    // 每次重试前淘汰的缓存项的数量。
+    private static final int EVICTION_BATCH = 16;
+
+    // 用于在内存中存储数据的缓存对象。
+    private final Cache<String, Entry> cache;
+    // 缓存项默认的过期时间，以纳秒为单位。
+    private final long defaultExpiration;
+    // 单个缓存项的值的最大字节数。
+    private final long maxEntryBytes;
+    // 堆外内存的分配器，仅在 {@link MemoryCacheMode#OFF_HEAP} 模式中使用。
+    private final SlabAllocator allocator;
+    // 记录淘汰的记录器。
+    private final MetricsRecorder metricsRecorder;
+    // 是否按缓存项占用的字节数计算权重，否则每个缓存项的权重为 1。
+    private final boolean weighBytes;
+    // 为高优先级的缓存项保留的权重。
+    private final long reservedCapacity;
+    // 保留区域中已占用的权重。
+    private final AtomicLong reservedWeight = new AtomicLong();
+
+    /**
+     * 创建一个新的内存缓存实例。
+     * @param options 用于配置混合缓存。
+     */
+    MemoryCache(HybridCacheOptions options) {
+        this.defaultExpiration = options.getExpirationScanFrequency().toNanos();
+
+        this.metricsRecorder = options.getMetricsRecorder();
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .evictionListener((key, entry, cause) -> this.metricsRecorder.recordEviction(HybridCacheTier.MEMORY))
+                .removalListener((key, entry, cause) -> {
+                    if (entry != null) {
+                        this.remove((Entry) entry);
+                    }
+                });
+        long capacity;
+        if (options.getMemoryCacheMode().equals(MemoryCacheMode.OFF_HEAP)) {
+            capacity = options.getMaxMemoryBytes() > 0 ? options.getMaxMemoryBytes() : DEFAULT_OFF_HEAP_BYTES;
+            int slabSize = (int) Math.min(options.getOffHeapSlabBytes(), capacity);
+            this.allocator = new SlabAllocator(capacity, slabSize);
+            this.weighBytes = true;
+
+            // 超过 Slab 大小的值无法存储在堆外内存中
+            this.maxEntryBytes =
+                    options.getMaxEntryBytes() > 0 ? Math.min(options.getMaxEntryBytes(), slabSize) : slabSize;
+
+            // 在调用线程上执行维护和移除通知，使被淘汰的存储块立即可以复用
+            builder.executor(Runnable::run);
+        } else {
+            this.allocator = null;
+            this.maxEntryBytes = options.getMaxEntryBytes();
+            this.weighBytes = options.getMaxMemoryBytes() > 0;
+            capacity = this.weighBytes ? options.getMaxMemoryBytes() : options.getSizeLimit();
+        }
+
+        this.reservedCapacity = (long) (capacity * Math.min(Math.max(options.getHighPriorityRatio(), 0), 1));
+        builder.maximumWeight(capacity - this.reservedCapacity).weigher(MemoryCache::weigh);
+
+        this.cache = builder.expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.expireAfterWrite();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.expireAfterWrite();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.expireAfterRead(currentTime, currentDuration);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 判断给定的值是否可以存储在内存缓存中。
+     * @param value 缓存中要设置的值。
+     * @return 如果值不超过单个缓存项的最大字节数，则返回 {@code true}。
+     */
+    boolean accepts(byte[] value) {
+        return this.maxEntryBytes <= 0 || value.length <= this.maxEntryBytes;
+    }
+
+    /**
+     * 获取一个具有给定键的值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 所处位置的值或 {@code null}。
+     */
+    byte[] get(String key) {
+        Entry entry = this.cache.getIfPresent(key);
+        return entry != null ? entry.read() : null;
+    }
+
+    /**
+     * 用给定的键设置一个值，使用默认的过期时间。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     */
+    void put(String key, byte[] value) {
+        this.put(key, value, this.defaultExpiration, 0, CacheItemPriority.NORMAL);
+    }
+
+    /**
+     * 用给定的键设置一个值，过期时间不超过默认的过期时间。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @param expiration 缓存项的过期时间。
+     */
+    void put(String key, byte[] value, Duration expiration) {
+        this.put(key, value, expiration, CacheItemPriority.NORMAL);
+    }
+
+    /**
+     * 用给定的键和优先级设置一个值，过期时间不超过默认的过期时间。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @param expiration 缓存项的过期时间，{@code null} 表示使用默认的过期时间。
+     * @param priority 缓存项的优先级。
+     */
+    void put(String key, byte[] value, Duration expiration, CacheItemPriority priority) {
+        long nanos =
+                expiration != null ? Math.min(expiration.toNanos(), this.defaultExpiration) : this.defaultExpiration;
+        this.put(key, value, nanos, 0, priority);
+    }
+
+    /**
+     * 用给定的键设置一个值，使用缓存项自己的绝对过期时间、滑动过期时间和优先级。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @param expiration 缓存项的绝对过期时间，{@code null} 表示使用默认的过期时间。
+     * @param slidingExpiration 缓存项的滑动过期时间，{@code null} 表示不延长过期时间。
+     * @param priority 缓存项的优先级。
+     */
+    void put(String key, byte[] value, Duration expiration, Duration slidingExpiration, CacheItemPriority priority) {
+        this.put(
+                key,
+                value,
+                expiration != null ? expiration.toNanos() : this.defaultExpiration,
+                slidingExpiration != null ? slidingExpiration.toNanos() : 0,
+                priority);
+    }
+
+    /**
+     * 用给定的键设置一个值，超过单个缓存项的最大字节数或无法分配堆外内存的值会被忽略。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param value 缓存中要设置的值。
+     * @param expiration 缓存项的绝对过期时间，以纳秒为单位。
+     * @param slidingExpiration 缓存项的滑动过期时间，以纳秒为单位，0 表示不延长过期时间。
+     * @param priority 缓存项的优先级。
+     */
+    private void put(String key, byte[] value, long expiration, long slidingExpiration, CacheItemPriority priority) {
+        Entry entry = null;
+        if (this.accepts(value)) {
+            entry = this.allocator != null
+                    ? this.allocate(value, expiration, slidingExpiration)
+                    : new HeapEntry(value, expiration, slidingExpiration);
+        }
+
+        if (entry != null) {
+            // 权重在写入之前确定，Caffeine 在写入时调用 weigher
+            entry.weight = this.weighBytes ? entry.weigh(key) : 1;
+            entry.priority = priority;
+            if (priority == CacheItemPriority.NEVER_REMOVE) {
+                entry.pinned = true;
+            } else if (priority == CacheItemPriority.HIGH) {
+                entry.reserved = this.reserve(entry.weight);
+            }
+            this.cache.put(key, entry);
+        } else {
+            this.cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 尝试在保留区域中为一个高优先级的缓存项占用给定的权重。
+     * @param weight 缓存项的权重。
+     * @return 如果保留区域的剩余容量足够，则返回 {@code true}。
+     */
+    private boolean reserve(int weight) {
+        for (; ; ) {
+            long reserved = this.reservedWeight.get();
+            if (reserved + weight > this.reservedCapacity) {
+                return false;
+            }
+            if (this.reservedWeight.compareAndSet(reserved, reserved + weight)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 在缓存项被移除时归还其在保留区域中占用的权重，并释放其占用的资源。
+     * @param entry 被移除的缓存项。
+     */
+    private void remove(Entry entry) {
+        if (entry.reserved) {
+            this.reservedWeight.addAndGet(-entry.weight);
+        }
+        entry.release();
+    }
+
+    /**
+     * 在堆外内存中分配一个缓存项，如果没有可用的堆外内存，则淘汰最冷的缓存项后重试。
+     * <p>
+     * 淘汰的缓存项所在的 Slab 全部空闲后会被回收，从而可以被其他大小等级的缓存项使用。
+     * @param value 缓存项的值。
+     * @param expiration 缓存项的绝对过期时间，以纳秒为单位。
+     * @param slidingExpiration 缓存项的滑动过期时间，以纳秒为单位。
+     * @return 缓存项，如果仍然无法分配，则返回 {@code null}。
+     */
+    private Entry allocate(byte[] value, long expiration, long slidingExpiration) {
+        for (int attempt = 0; ; attempt++) {
+            Entry entry = OffHeapEntry.create(this.allocator, value, expiration, slidingExpiration);
+            if (entry != null || attempt == EVICTION_ATTEMPTS) {
+                return entry;
+            }
+
+            // 只淘汰参与淘汰的缓存项，固定的和保留区域中的缓存项不受影响
+            int count = EVICTION_BATCH * (attempt + 1);
+            this.cache.policy().eviction().ifPresent(eviction -> {
+                Set<String> keys = eviction.coldest(count).entrySet().stream()
+                        .filter(e -> weigh(e.getKey(), e.getValue()) > 0)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toSet());
+                this.cache.invalidateAll(keys);
+                keys.forEach(key -> this.metricsRecorder.recordEviction(HybridCacheTier.MEMORY));
+            });
+        }
+    }
+
+    /**
+     * 判断是否存在一个具有给定键的缓存项，不视为一次访问。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 如果缓存项存在，则返回 {@code true}。
+     */
+    boolean contains(String key) {
+        return this.cache.asMap().containsKey(key);
+    }
+
+    /**
+     * 获取访问频率最高的未过期的缓存项。
+     * @param limit 最多返回的缓存项的数量。
+     * @return 缓存项的列表，按访问频率从高到低排列。
+     */
+    List<HotEntry> hottest(int limit) {
+        List<HotEntry> entries = new ArrayList<>();
+        this.cache.policy().eviction().ifPresent(eviction -> eviction.hottest(limit)
+                .forEach((key, entry) -> {
+                    Duration timeToLive = this.getTimeToLive(key);
+                    long expiration = entry.deadline - System.nanoTime();
+                    byte[] value = entry.read();
+                    if (value != null && timeToLive != null && !timeToLive.isZero() && expiration > 0) {
+                        entries.add(new HotEntry(key, value, expiration, entry.slidingExpiration, entry.priority));
+                    }
+                }));
+        return entries;
+    }
+
+    /**
+     * 获取一个具有给定键的值的剩余过期时间。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 剩余过期时间，如果未找到该值则返回 {@code null}。
+     */
+    Duration getTimeToLive(String key) {
+        return this.cache
+                .policy()
+                .expireVariably()
+                .flatMap(expiry -> {
+                    OptionalLong expiresAfter = expiry.getExpiresAfter(key, TimeUnit.NANOSECONDS);
+                    return expiresAfter.isPresent()
+                            ? Optional.of(Duration.ofNanos(expiresAfter.getAsLong()))
+                            : Optional.empty();
+                })
+                .orElse(null);
+    }
+
+    /**
+     * 访问一个具有给定键的缓存项而不读取其值，从而延长其滑动过期时间（如果有的话）。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 如果缓存项存在，则返回 {@code true}。
+     */
+    boolean touch(String key) {
+        return this.cache.getIfPresent(key) != null;
+    }
+
+    /**
+     * 根据键值移除缓存中的一个值（如果有的话）。
+     * @param key 一个字符串，用于识别所处位置的值。
+     */
+    void invalidate(String key) {
+        this.cache.invalidate(key);
+    }
+
+    /**
+     * 根据键值移除缓存中的多个值（如果有的话）。
+     * @param keys 用于识别所处位置的值的字符串集合。
+     */
+    void invalidateAll(Iterable<String> keys) {
+        this.cache.invalidateAll(keys);
+    }
+
+    /**
+     * 移除所有的缓存项。
+     */
+    void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * 移除所有的缓存项，并释放堆外内存。
+     */
+    void close() {
+        this.cache.invalidateAll();
+        if (this.allocator != null) {
+            this.allocator.clear();
+        }
+    }
+
+    /**
+     * 获取一个缓存项在淘汰中的权重。
+     * @param key 缓存项的键。
+     * @param entry 缓存项。
+     * @return 缓存项的权重，固定的和保留区域中的缓存项为 0。
+     */
+    private static int weigh(Object key, Object entry) {
+        Entry e = (Entry) entry;
+        return e.pinned || e.reserved ? 0 : e.weight;
+    }
+
+    /**
+     * 表示一个缓存项。
+     */
+    private abstract static class Entry {
+        // 缓存项的绝对过期时间，以纳秒为单位。
+        private final long expiration;
+        // 缓存项的滑动过期时间，以纳秒为单位，0 表示不延长过期时间。
+        private final long slidingExpiration;
+        // 缓存项的绝对过期时刻，以 {@link System#nanoTime()} 表示。
+        private final long deadline;
+        // 缓存项的权重，在写入之前确定。
+        private int weight;
+        // 缓存项是否固定在内存缓存中，不因容量而被淘汰。
+        private boolean pinned;
+        // 缓存项是否占用了保留区域的权重。
+        private boolean reserved;
+        // 缓存项的优先级。
+        private CacheItemPriority priority = CacheItemPriority.NORMAL;
+
+        private Entry(long expiration, long slidingExpiration) {
+            this.expiration = expiration;
+            this.slidingExpiration = slidingExpiration;
+            this.deadline = System.nanoTime() + expiration;
+        }
+
+        /**
+         * 计算缓存项在写入后的过期时间。
+         * @return 过期时间，以纳秒为单位。
+         */
+        long expireAfterWrite() {
+            return this.slidingExpiration > 0 ? Math.min(this.slidingExpiration, this.expiration) : this.expiration;
+        }
+
+        /**
+         * 计算缓存项在读取后的过期时间，滑动过期的缓存项被延长，但不超过其绝对过期时刻。
+         * @param currentTime 当前时刻，以 {@link System#nanoTime()} 表示。
+         * @param currentDuration 当前的剩余过期时间，以纳秒为单位。
+         * @return 过期时间，以纳秒为单位。
+         */
+        long expireAfterRead(long currentTime, long currentDuration) {
+            if (this.slidingExpiration <= 0) {
+                return currentDuration;
+            }
+            return Math.max(0, Math.min(this.slidingExpiration, this.deadline - currentTime));
+        }
+
+        /**
+         * 读取缓存项的值。
+         * @return 缓存项的值，如果缓存项已被释放，则返回 {@code null}。
+         */
+        abstract byte[] read();
+
+        /**
+         * 估计缓存项占用的字节数。
+         * @param key 缓存项的键。
+         * @return 缓存项占用的字节数。
+         */
+        abstract int weigh(String key);
+
+        /**
+         * 在缓存项被移除时释放其占用的资源。
+         */
+        void release() {}
+    }
+
+    /**
+     * 表示 {@link #hottest(int)} 返回的一个缓存项，用于保存到快照中。
+     */
+    static final class HotEntry {
+        // 缓存项的键。
+        final String key;
+        // 缓存项的值。
+        final byte[] value;
+        // 缓存项剩余的绝对过期时间，以纳秒为单位。
+        final long expiration;
+        // 缓存项的滑动过期时间，以纳秒为单位，0 表示不延长过期时间。
+        final long slidingExpiration;
+        // 缓存项的优先级。
+        final CacheItemPriority priority;
+
+        private HotEntry(
+                String key, byte[] value, long expiration, long slidingExpiration, CacheItemPriority priority) {
+            this.key = key;
+            this.value = value;
+            this.expiration = expiration;
+            this.slidingExpiration = slidingExpiration;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * 表示一个值存储在 Java 堆中的缓存项。
+     */
+    private static final class HeapEntry extends Entry {
+        // 缓存项的值。
+        private final byte[] value;
+
+        private HeapEntry(byte[] value, long expiration, long slidingExpiration) {
+            super(expiration, slidingExpiration);
+            this.value = value;
+        }
+
+        @Override
+        byte[] read() {
+            return this.value;
+        }
+
+        @Override
+        int weigh(String key) {
+            long weight = key.length() * 2L + this.value.length + ENTRY_OVERHEAD;
+            return (int) Math.min(weight, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 表示一个值存储在堆外内存中的缓存项。
+     * <p>
+     * 缓存项通过引用计数管理存储块，缓存本身持有一个引用，读取时临时持有一个引用，
+     * 计数归零时才释放存储块，避免读取到已被复用的存储块。
+     */
+    private static final class OffHeapEntry extends Entry {
+        // 分配存储块的分配器。
+        private final SlabAllocator allocator;
+        // 存储块的地址。
+        private final long address;
+        // 值的字节数。
+        private final int length;
+        // 存储块的字节数。
+        private final int blockSize;
+        // 引用计数。
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private OffHeapEntry(
+                SlabAllocator allocator, long address, int length, long expiration, long slidingExpiration) {
+            super(expiration, slidingExpiration);
+            this.allocator = allocator;
+            this.address = address;
+            this.length = length;
+            this.blockSize = allocator.blockSizeOf(address);
+        }
+
+        /**
+         * 分配一个存储块并写入值。
+         * @param allocator 堆外内存的分配器。
+         * @param value 缓存项的值。
+         * @param expiration 缓存项的绝对过期时间，以纳秒为单位。
+         * @param slidingExpiration 缓存项的滑动过期时间，以纳秒为单位。
+         * @return 缓存项，如果没有可用的堆外内存，则返回 {@code null}。
+         */
+        static OffHeapEntry create(SlabAllocator allocator, byte[] value, long expiration, long slidingExpiration) {
+            long address = allocator.allocate(value.length);
+            if (address < 0) {
+                return null;
+            }
+
+            allocator.write(address, value);
+            return new OffHeapEntry(allocator, address, value.length, expiration, slidingExpiration);
+        }
+
+        @Override
+        byte[] read() {
+            if (!this.retain()) {
+                return null;
+            }
+
+            try {
+                return this.allocator.read(this.address, this.length);
+            } finally {
+                this.release();
+            }
+        }
+
+        @Override
+        int weigh(String key) {
+            return this.blockSize;
+        }
+
+        @Override
+        void release() {
+            if (this.references.decrementAndGet() == 0) {
+                this.allocator.free(this.address);
+            }
+        }
+
+        /**
+         * 在缓存项未被释放时增加一个引用。
+         * @return 如果缓存项未被释放，则返回 {@code true}。
+         */
+        private boolean retain() {
+            for (; ; ) {
+                int references = this.references.get();
+                if (references == 0) {
+                    return false;
+                }
+                if (this.references.compareAndSet(references, references + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import com.aventrix.jnanoid.jnanoid.NanoIdUtils;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用于在关闭时保存内存缓存中最热的缓存项，并在启动时重新加载的快照文件。
+ * <p>
+ * 文件以 4 个字节的魔数（"HCS2"，最后一个字节表示格式的版本）、4 个字节的缓存项数量和 8 个字节的创建时间开始，
+ * 随后依次是每个缓存项：4 个字节的键长度、键、8 个字节的绝对过期时间（Unix 毫秒）、8 个字节的滑动过期时间（毫秒，
+ * 0 表示不延长过期时间）、1 个字节的优先级（{@link CacheItemPriority} 的序号）、4 个字节的值长度和值。
+ * 所有整数均为大端序。加载时通过内存映射读取文件，已经过期的缓存项被跳过，滑动过期时间从加载时开始计算。
+ * 旧版本（"HCS1"）的文件中没有滑动过期时间和优先级，其中的缓存项以普通优先级加载。
+ */
+final class MemorySnapshot {
+    // 快照文件的魔数，即 "HCS2"。
+    private static final int MAGIC = 0x48435332;
+    // 不包含滑动过期时间和优先级的旧版本快照文件的魔数，即 "HCS1"。
+    private static final int MAGIC_V1 = 0x48435331;
+    // 快照文件头部的长度。
+    private static final int HEADER_LENGTH = 16;
+    // 按序号排列的缓存项的优先级。
+    private static final CacheItemPriority[] PRIORITIES = CacheItemPriority.values();
+
+    private MemorySnapshot() {}
+
+    /**
+     * 将内存缓存中最热的缓存项写入快照文件，先写入临时文件再原子地替换原文件。
+     * @param path 快照文件的路径。
+     * @param memoryCache 内存缓存。
+     * @param limit 最多保存的缓存项的数量。
+     * @return 保存的缓存项的数量。
+     * @throws IOException 可能会引发 {@link IOException} 异常。
+     */
+    static int write(Path path, MemoryCache memoryCache, int limit) throws IOException {
+        List<MemoryCache.HotEntry> entries = memoryCache.hottest(limit);
+        long now = System.currentTimeMillis();
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + "." + NanoIdUtils.randomNanoId() + ".tmp");
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            output.writeInt(MAGIC);
+            output.writeInt(0);
+            output.writeLong(now);
+
+            for (MemoryCache.HotEntry entry : entries) {
+                byte[] key = entry.key.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(key.length);
+                output.write(key);
+                output.writeLong(now + TimeUnit.NANOSECONDS.toMillis(entry.expiration));
+                output.writeLong(TimeUnit.NANOSECONDS.toMillis(entry.slidingExpiration));
+                output.writeByte(entry.priority.ordinal());
+                output.writeInt(entry.value.length);
+                output.write(entry.value);
+                count++;
+            }
+            output.flush();
+
+            // 回填缓存项的数量
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).putInt(count);
+            buffer.flip();
+            channel.write(buffer, Integer.BYTES);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return count;
+    }
+
+    /**
+     * 从快照文件中加载未过期的缓存项到内存缓存中。
+     * <p>
+     * 文件损坏时加载已读取的缓存项并停止。
+     * @param path 快照文件的路径。
+     * @param memoryCache 内存缓存。
+     * @return 加载的缓存项的数量。
+     * @throws IOException 可能会引发 {@link IOException} 异常。
+     */
+    static int load(Path path, MemoryCache memoryCache) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < HEADER_LENGTH) {
+            return 0;
+        }
+        int magic = buffer.getInt();
+        if (magic != MAGIC && magic != MAGIC_V1) {
+            return 0;
+        }
+
+        int count = buffer.getInt();
+        buffer.getLong();
+
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] key = readBytes(buffer);
+            if (key == null || buffer.remaining() < Long.BYTES) {
+                break;
+            }
+            long expiresAt = buffer.getLong();
+            long slidingExpiration = 0;
+            CacheItemPriority priority = CacheItemPriority.NORMAL;
+            if (magic == MAGIC) {
+                if (buffer.remaining() < Long.BYTES + 1) {
+                    break;
+                }
+                slidingExpiration = buffer.getLong();
+                int ordinal = buffer.get();
+                if (ordinal < 0 || ordinal >= PRIORITIES.length) {
+                    break;
+                }
+                priority = PRIORITIES[ordinal];
+            }
+            byte[] value = readBytes(buffer);
+            if (value == null) {
+                break;
+            }
+
+            if (expiresAt > now) {
+                memoryCache.put(
+                        new String(key, StandardCharsets.UTF_8),
+                        value,
+                        Duration.ofMillis(expiresAt - now),
+                        slidingExpiration > 0 ? Duration.ofMillis(slidingExpiration) : null,
+                        priority);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 读取一个以 4 个字节的长度开始的字节数组。
+     * @param buffer 快照文件的缓冲区。
+     * @return 字节数组，如果剩余的数据不完整则返回 {@code null}。
+     */
+    private static byte[] readBytes(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
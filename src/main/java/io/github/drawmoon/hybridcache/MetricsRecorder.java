@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+/**
+ * 记录混合缓存的指标，例如各层级的命中、未命中、淘汰和错误次数，读写的延迟和字节数，以及加载和序列化的耗时。
+ * <p>
+ * 所有方法都在缓存的读写路径上调用，实现应当足够轻量并且线程安全。默认的实现不记录任何指标。
+ */
+public interface MetricsRecorder {
+    /**
+     * 记录一个层级中的一次命中。
+     * @param tier 命中的层级。
+     */
+    default void recordHit(HybridCacheTier tier) {}
+
+    /**
+     * 记录一个层级中的一次未命中。
+     * @param tier 未命中的层级。
+     */
+    default void recordMiss(HybridCacheTier tier) {}
+
+    /**
+     * 记录一个层级中因容量或过期而被淘汰的一个缓存项。
+     * @param tier 淘汰缓存项的层级。
+     */
+    default void recordEviction(HybridCacheTier tier) {}
+
+    /**
+     * 记录一个层级中发生的一次错误，这些错误不会抛给调用者。
+     * @param tier 发生错误的层级。
+     * @param error 发生的错误。
+     */
+    default void recordError(HybridCacheTier tier, Throwable error) {}
+
+    /**
+     * 记录从一个层级中读取值的延迟。
+     * @param tier 读取的层级。
+     * @param nanos 延迟，以纳秒为单位。
+     */
+    default void recordGetLatency(HybridCacheTier tier, long nanos) {}
+
+    /**
+     * 记录向一个层级中写入值的延迟。
+     * @param tier 写入的层级。
+     * @param nanos 延迟，以纳秒为单位。
+     */
+    default void recordSetLatency(HybridCacheTier tier, long nanos) {}
+
+    /**
+     * 记录从一个层级中读取的字节数。
+     * @param tier 读取的层级。
+     * @param bytes 读取的字节数。
+     */
+    default void recordBytesRead(HybridCacheTier tier, long bytes) {}
+
+    /**
+     * 记录向一个层级中写入的字节数。
+     * @param tier 写入的层级。
+     * @param bytes 写入的字节数。
+     */
+    default void recordBytesWritten(HybridCacheTier tier, long bytes) {}
+
+    /**
+     * 记录一次调用加载函数的耗时。
+     * @param nanos 耗时，以纳秒为单位。
+     * @param success 加载函数是否正常返回。
+     */
+    default void recordLoad(long nanos, boolean success) {}
+
+    /**
+     * 记录一次将对象序列化为字节数组的耗时。
+     * @param nanos 耗时，以纳秒为单位。
+     */
+    default void recordSerialization(long nanos) {}
+
+    /**
+     * 记录一次将字节数组反序列化为对象的耗时。
+     * @param nanos 耗时，以纳秒为单位。
+     */
+    default void recordDeserialization(long nanos) {}
+
+    /**
+     * 记录一次将从 Redis 读取的热点键固定到内存缓存中。
+     * @param key 热点键。
+     */
+    default void recordHotKeyPin(String key) {}
+
+    /**
+     * 返回一个不记录任何指标的记录器。
+     * @return 一个不记录任何指标的记录器。
+     */
+    static MetricsRecorder noop() {
+        return NoopMetricsRecorder.INSTANCE;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 按照 {@link RedisConnectionMode} 管理到一个 Redis 节点或一个 Redis 集群的多路复用连接。
+ * <p>
+ * 在 Redis 集群中，命令由 {@link RedisClusterClient} 按键的哈希槽路由到对应的节点，多键操作按哈希槽拆分后分别发送。
+ */
+final class MultiplexedRedisConnector extends RedisConnector {
+    // Redis 客户端。
+    private final AbstractRedisClient redisClient;
+    // 用于发送命令的连接，只有 POOLED 模式中包含多个连接。
+    private final List<StatefulConnection<byte[], byte[]>> connections = new ArrayList<>();
+    // 用于发送命令的连接的命令接口，与连接一一对应。
+    private final List<RedisClusterAsyncCommands<byte[], byte[]>> commands = new ArrayList<>();
+    // 用于批量写入的连接，关闭了自动刷新以便将多个命令合并为一次发送。
+    private final StatefulConnection<byte[], byte[]> pipelineConnection;
+    // 用于批量写入的连接的命令接口。
+    private final RedisClusterAsyncCommands<byte[], byte[]> pipelineCommands;
+
+    // 连接方式。
+    private final RedisConnectionMode mode;
+    // 在 BATCHED 模式中触发刷新的缓冲命令数量。
+    private final int flushSize;
+    // 在 BATCHED 模式中缓冲的命令数量。
+    private final AtomicInteger pending = new AtomicInteger();
+    // 在 BATCHED 模式中按时间间隔刷新缓冲命令的任务。
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * 创建一个新的连接器实例，并按照选项打开连接。
+     * @param redisClient Redis 客户端，创建失败时被关闭。
+     * @param connect 打开一个连接的函数。
+     * @param async 获取连接的命令接口的函数。
+     * @param options Redis 缓存选项。
+     * @param scheduler 用于在 {@link RedisConnectionMode#BATCHED} 模式中按时间间隔刷新缓冲命令的调度器。
+     * @param <C> 连接的类型。
+     */
+    private <C extends StatefulConnection<byte[], byte[]>> MultiplexedRedisConnector(
+            AbstractRedisClient redisClient,
+            Supplier<C> connect,
+            Function<C, RedisClusterAsyncCommands<byte[], byte[]>> async,
+            RedisCacheOptions options,
+            ScheduledExecutorService scheduler) {
+        this.redisClient = redisClient;
+        this.mode = options.getConnectionMode();
+        this.flushSize = Math.max(options.getFlushSize(), 1);
+
+        int size = this.mode == RedisConnectionMode.POOLED ? Math.max(options.getPoolSize(), 1) : 1;
+        try {
+            for (int i = 0; i < size; i++) {
+                C connection = connect.get();
+                this.connections.add(connection);
+                this.commands.add(async.apply(connection));
+            }
+            C pipelineConnection = connect.get();
+            pipelineConnection.setAutoFlushCommands(false);
+            this.pipelineConnection = pipelineConnection;
+            this.pipelineCommands = async.apply(pipelineConnection);
+        } catch (RuntimeException e) {
+            this.connections.forEach(StatefulConnection::close);
+            redisClient.shutdown();
+            throw e;
+        }
+
+        if (this.mode == RedisConnectionMode.BATCHED) {
+            this.connections.get(0).setAutoFlushCommands(false);
+
+            long interval = Math.max(options.getFlushInterval().toNanos(), 1);
+            this.flushTask =
+                    scheduler.scheduleWithFixedDelay(this::flushPending, interval, interval, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 创建一个连接到单个 Redis 节点或由 Sentinel 监控的主节点的连接器。
+     * @param uri 用于连接到 Redis 的 URI。
+     * @param options Redis 缓存选项。
+     * @param scheduler 用于在 {@link RedisConnectionMode#BATCHED} 模式中按时间间隔刷新缓冲命令的调度器。
+     * @return 一个新的连接器实例。
+     */
+    static MultiplexedRedisConnector standalone(
+            RedisURI uri, RedisCacheOptions options, ScheduledExecutorService scheduler) {
+        RedisClient redisClient = RedisClient.create(uri);
+        redisClient.setOptions(ClientOptions.builder()
+                .socketOptions(socketOptions(options))
+                .timeoutOptions(TimeoutOptions.enabled(options.getCommandTimeout()))
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build());
+        return new MultiplexedRedisConnector(
+                redisClient,
+                () -> redisClient.connect(new ByteArrayCodec()),
+                StatefulRedisConnection::async,
+                options,
+                scheduler);
+    }
+
+    /**
+     * 创建一个连接到 Redis 集群的连接器，集群拓扑在节点变化或收到重定向时自动刷新。
+     * @param seeds 用于发现集群拓扑的种子节点的 URI。
+     * @param options Redis 缓存选项。
+     * @param scheduler 用于在 {@link RedisConnectionMode#BATCHED} 模式中按时间间隔刷新缓冲命令的调度器。
+     * @return 一个新的连接器实例。
+     */
+    static MultiplexedRedisConnector cluster(
+            List<RedisURI> seeds, RedisCacheOptions options, ScheduledExecutorService scheduler) {
+        RedisClusterClient redisClient = RedisClusterClient.create(seeds);
+        redisClient.setOptions(ClusterClientOptions.builder()
+                .socketOptions(socketOptions(options))
+                .timeoutOptions(TimeoutOptions.enabled(options.getCommandTimeout()))
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                        .enableAllAdaptiveRefreshTriggers()
+                        .build())
+                .build());
+        return new MultiplexedRedisConnector(
+                redisClient,
+                () -> redisClient.connect(new ByteArrayCodec()),
+                StatefulRedisClusterConnection::async,
+                options,
+                scheduler);
+    }
+
+    /**
+     * 根据选项创建套接字选项。
+     * @param options Redis 缓存选项。
+     * @return 套接字选项。
+     */
+    private static SocketOptions socketOptions(RedisCacheOptions options) {
+        return SocketOptions.builder()
+                .connectTimeout(options.getConnectTimeout())
+                .build();
+    }
+
+    @Override
+    <T> CompletableFuture<T> execute(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command) {
+        RedisFuture<T> future = command.apply(this.commands(key), key);
+        if (this.mode == RedisConnectionMode.BATCHED) {
+            this.flush();
+        }
+        return future.toCompletableFuture();
+    }
+
+    @Override
+    <T> CompletableFuture<T> enqueue(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command) {
+        RedisFuture<T> future = command.apply(this.commands(key), key);
+        if (this.mode == RedisConnectionMode.BATCHED && this.pending.incrementAndGet() >= this.flushSize) {
+            this.flush();
+        }
+        return future.toCompletableFuture();
+    }
+
+    @Override
+    CompletableFuture<Void> ping() {
+        return this.execute(new byte[0], (commands, key) -> commands.ping()).thenApply(reply -> null);
+    }
+
+    @Override
+    CompletableFuture<List<KeyValue<byte[], byte[]>>> mget(byte[][] keys) {
+        return this.execute(keys[0], (commands, key) -> commands.mget(keys));
+    }
+
+    @Override
+    CompletableFuture<Long> del(byte[][] keys) {
+        return this.enqueue(keys[0], (commands, key) -> commands.del(keys));
+    }
+
+    @Override
+    CompletableFuture<Void> setAll(List<KeyValue<byte[], byte[]>> entries, SetArgs setArgs) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(entries.size());
+        synchronized (this.pipelineConnection) {
+            entries.forEach(entry -> futures.add(this.pipelineCommands
+                    .set(entry.getKey(), entry.getValue(), setArgs)
+                    .toCompletableFuture()));
+            this.pipelineConnection.flushCommands();
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    @Override
+    StatefulRedisPubSubConnection<byte[], byte[]> connectPubSub() {
+        if (this.redisClient instanceof RedisClusterClient) {
+            return ((RedisClusterClient) this.redisClient).connectPubSub(new ByteArrayCodec());
+        }
+        return ((RedisClient) this.redisClient).connectPubSub(new ByteArrayCodec());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    List<StatefulRedisConnection<byte[], byte[]>> getTrackedConnections() {
+        return this.connections.stream()
+                .filter(connection -> connection instanceof StatefulRedisConnection)
+                .map(connection -> (StatefulRedisConnection<byte[], byte[]>) connection)
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+
+    @Override
+    void addReconnectListener(Consumer<StatefulRedisConnection<byte[], byte[]>> listener) {
+        List<StatefulRedisConnection<byte[], byte[]>> trackedConnections = this.getTrackedConnections();
+        this.redisClient.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+                // 监听器在连接打开之后才添加，因此只会收到重新连接的事件
+                for (StatefulRedisConnection<byte[], byte[]> trackedConnection : trackedConnections) {
+                    if (trackedConnection == connection) {
+                        listener.accept(trackedConnection);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    boolean isOpen() {
+        return this.connections.stream().allMatch(StatefulConnection::isOpen);
+    }
+
+    // Closes this resource, relinquishing any underlying resources.
+    @Override
+    public void close() {
+        if (this.flushTask != null) {
+            this.flushTask.cancel(false);
+            this.flush();
+        }
+        this.connections.forEach(StatefulConnection::close);
+        this.pipelineConnection.close();
+        this.redisClient.shutdown();
+    }
+
+    /**
+     * 选择用于发送一个键的命令的连接的命令接口，同一个键总是选择同一个连接。
+     * @param key 命令所操作的键。
+     * @return 连接的命令接口。
+     */
+    private RedisClusterAsyncCommands<byte[], byte[]> commands(byte[] key) {
+        if (this.commands.size() == 1) {
+            return this.commands.get(0);
+        }
+        return this.commands.get(Math.floorMod(Arrays.hashCode(key), this.commands.size()));
+    }
+
+    /**
+     * 如果 {@link RedisConnectionMode#BATCHED} 模式中有缓冲的命令，则将它们写入套接字。
+     */
+    private void flushPending() {
+        if (this.pending.get() > 0) {
+            try {
+                this.flush();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * 将 {@link RedisConnectionMode#BATCHED} 模式中缓冲的命令写入套接字。
+     */
+    private void flush() {
+        this.pending.set(0);
+        this.connections.get(0).flushCommands();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.github.drawmoon.hybridcache.utils.FrequencySketch;
+
+/**
+ * 为 {@link HybridCachePlace#AUTO} 的值选择层级的放置引擎。
+ * <p>
+ * 读取频率由一个会定期衰减的 Count-Min Sketch 估计，只记录未命中内存缓存、需要访问 Redis 或存储的读取，
+ * 因此不会增加内存缓存命中的开销。
+ */
+final class PlacementEngine {
+    // 可以保留在本地内存缓存中的值的最大字节数。
+    private final int localThreshold;
+    // 值保留在本地内存缓存中需要的估计读取频率。
+    private final int frequencyThreshold;
+    // 转移到磁盘或分布式对象存储的值的最小字节数，0 表示不转移。
+    private final int storeThreshold;
+    // 用于估计读取频率的 Count-Min Sketch。
+    private final FrequencySketch sketch;
+
+    /**
+     * 创建一个新的放置引擎实例。
+     * @param options 自动放置选项。
+     */
+    PlacementEngine(PlacementOptions options) {
+        this.localThreshold = options.getLocalThreshold();
+        this.frequencyThreshold = options.getFrequencyThreshold();
+        this.storeThreshold = options.getStoreThreshold();
+        this.sketch = new FrequencySketch(options.getExpectedKeys());
+    }
+
+    /**
+     * 记录一次未命中内存缓存的读取。
+     * @param key 被读取的键。
+     */
+    void record(String key) {
+        this.sketch.increment(key);
+    }
+
+    /**
+     * 判断一个写入 Redis 的值是否同时保留在本地内存缓存中。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 待写入的值。
+     * @param cached 值的旧版本是否仍在内存缓存中。
+     * @return 如果值足够小，并且最近被频繁读取或旧版本仍在内存缓存中，则返回 {@code true}。
+     */
+    boolean keepsLocal(String key, byte[] bytes, boolean cached) {
+        if (bytes.length > this.localThreshold) {
+            return false;
+        }
+        return cached || this.sketch.frequency(key) >= this.frequencyThreshold;
+    }
+
+    /**
+     * 判断一个值是否转移到磁盘或分布式对象存储，Redis 中只保存指针。
+     * @param bytes 待写入的值。
+     * @return 如果值不小于转移的最小字节数，则返回 {@code true}。
+     */
+    boolean offloads(byte[] bytes) {
+        return this.storeThreshold > 0 && bytes.length >= this.storeThreshold;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * {@link HybridCachePlace#AUTO} 的自动放置选项。
+ * <p>
+ * 自动放置的值按序列化后的大小和最近的访问频率选择层级：小而频繁读取的值在写入 Redis 的同时保留在本地内存缓存中，
+ * 连接到分布式对象存储时大值写入存储，Redis 中只保存指向存储的指针，其余的值只写入 Redis。
+ * 每次写入都按当时的访问情况重新选择，因此值的层级随访问模式的变化而调整。
+ */
+public class PlacementOptions {
+    /**
+     * 是否启用自动放置，未启用时自动放置的值只写入 Redis。
+     * <p>
+     * 转移到存储的值在 Redis 中以指针的形式保存，旧版本无法读取，所有节点都升级之后才能启用。
+     */
+    @Getter
+    @Setter
+    private boolean enabled;
+
+    /**
+     * 可以保留在本地内存缓存中的值的最大字节数。
+     */
+    @Getter
+    @Setter
+    private int localThreshold = 1024;
+
+    /**
+     * 值保留在本地内存缓存中需要的估计读取频率，只统计未命中内存缓存的读取。已在内存缓存中的值不受该限制。
+     */
+    @Getter
+    @Setter
+    private int frequencyThreshold = 8;
+
+    /**
+     * 转移到分布式对象存储的值的最小字节数，0 表示不转移。存储位于本地磁盘时不转移。
+     */
+    @Getter
+    @Setter
+    private int storeThreshold = 1024 * 1024;
+
+    /**
+     * 预期的不同键的数量，用于确定估计读取频率的 Sketch 的宽度。
+     */
+    @Getter
+    @Setter
+    private int expectedKeys = 65_536;
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 一个将基本类型的包装类以定长的二进制形式存储的序列化器，其他类型交给另一个序列化器处理。
+ * <p>
+ * 支持 {@link Long}、{@link Integer}、{@link Short}、{@link Byte}、{@link Double}、{@link Float}、
+ * {@link Boolean} 和 {@link Character}，读取时必须使用与写入时相同的类型。
+ */
+public class PrimitiveSerializer implements Serializer {
+    // 用于处理其他类型的序列化器。
+    private final Serializer fallback;
+
+    /**
+     * 创建一个新的序列化器实例，其他类型使用 BSON 格式。
+     */
+    public PrimitiveSerializer() {
+        this(JacksonSerializer.bson());
+    }
+
+    /**
+     * 创建一个新的序列化器实例。
+     * @param fallback 用于处理其他类型的序列化器。
+     */
+    public PrimitiveSerializer(Serializer fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws IOException {
+        if (value instanceof Long) {
+            return ByteBuffer.allocate(Long.BYTES).putLong((Long) value).array();
+        }
+        if (value instanceof Integer) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt((Integer) value).array();
+        }
+        if (value instanceof Short) {
+            return ByteBuffer.allocate(Short.BYTES).putShort((Short) value).array();
+        }
+        if (value instanceof Byte) {
+            return new byte[] {(Byte) value};
+        }
+        if (value instanceof Double) {
+            return ByteBuffer.allocate(Double.BYTES).putDouble((Double) value).array();
+        }
+        if (value instanceof Float) {
+            return ByteBuffer.allocate(Float.BYTES).putFloat((Float) value).array();
+        }
+        if (value instanceof Boolean) {
+            return new byte[] {(byte) ((Boolean) value ? 1 : 0)};
+        }
+        if (value instanceof Character) {
+            return ByteBuffer.allocate(Character.BYTES)
+                    .putChar((Character) value)
+                    .array();
+        }
+
+        return this.fallback.serialize(value);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> clazz) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (clazz.equals(Long.class)) {
+            return clazz.cast(buffer.getLong());
+        }
+        if (clazz.equals(Integer.class)) {
+            return clazz.cast(buffer.getInt());
+        }
+        if (clazz.equals(Short.class)) {
+            return clazz.cast(buffer.getShort());
+        }
+        if (clazz.equals(Byte.class)) {
+            return clazz.cast(buffer.get());
+        }
+        if (clazz.equals(Double.class)) {
+            return clazz.cast(buffer.getDouble());
+        }
+        if (clazz.equals(Float.class)) {
+            return clazz.cast(buffer.getFloat());
+        }
+        if (clazz.equals(Boolean.class)) {
+            return clazz.cast(buffer.get() != 0);
+        }
+        if (clazz.equals(Character.class)) {
+            return clazz.cast(buffer.getChar());
+        }
+
+        return this.fallback.deserialize(bytes, clazz);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+/**
+ * 决定在 Redis 或磁盘、分布式对象存储中命中的值是否应该提升到内存缓存中。
+ */
+@FunctionalInterface
+public interface PromotionPolicy {
+    /**
+     * 在一个键于内存缓存之外命中时调用，判断是否将其提升到内存缓存中。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 如果应该提升到内存缓存中，则返回 {@code true}。
+     */
+    boolean shouldPromote(String key);
+
+    /**
+     * 返回一个总是提升的策略。
+     * @return 一个总是提升的策略。
+     */
+    static PromotionPolicy always() {
+        return key -> true;
+    }
+
+    /**
+     * 返回一个从不提升的策略。
+     * @return 一个从不提升的策略。
+     */
+    static PromotionPolicy never() {
+        return key -> false;
+    }
+
+    /**
+     * 返回一个在键于内存缓存之外命中给定次数后提升的策略。
+     * @param hits 提升前需要的命中次数。
+     * @return 一个在命中给定次数后提升的策略。
+     */
+    static PromotionPolicy afterHits(int hits) {
+        return new HitCountPromotionPolicy(hits);
+    }
+
+    /**
+     * 返回一个在键的估计访问频率达到给定阈值后提升的策略。
+     * @param threshold 提升需要的估计访问频率。
+     * @return 一个根据访问频率提升的策略。
+     */
+    static PromotionPolicy frequency(int threshold) {
+        return new FrequencyPromotionPolicy(threshold);
+    }
+}
@@ -18,6 +18,7 @@
  */
 package io.github.drawmoon.hybridcache;
 
+import java.time.Duration;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -26,16 +27,148 @@ import lombok.Setter;
  */
 public class RedisCacheOptions {
     /**
-     * 用于连接到 Redis 的配置。
+     * 用于连接到 Redis 的配置，可以是 {@code host:port} 形式的地址，
+     * 也可以是完整的 URI，例如 {@code rediss://host:6380} 或 {@code redis-sentinel://host:26379#mymaster}。
+     * <p>
+     * 在 {@link RedisTopology#CLUSTER} 和 {@link RedisTopology#SHARDED} 中为以逗号分隔的多个节点的配置。
      */
     @Getter
     @Setter
     private String configuration;
 
+    /**
+     * Redis 的部署方式。
+     */
+    @Getter
+    @Setter
+    private RedisTopology topology = RedisTopology.STANDALONE;
+
     /**
      * Redis 实例名称。
      */
     @Getter
     @Setter
     private String instanceName;
+
+    /**
+     * Sentinel 监控的主节点名称，设置后将 {@code host:port} 形式的配置视为以逗号分隔的 Sentinel 地址列表。
+     * <p>
+     * 只在 {@link RedisTopology#STANDALONE} 中有效。
+     */
+    @Getter
+    @Setter
+    private String sentinelMasterId;
+
+    /**
+     * 是否使用 TLS 连接到 Redis。
+     */
+    @Getter
+    @Setter
+    private boolean ssl = false;
+
+    /**
+     * 使用 TLS 时是否验证 Redis 的证书和主机名。
+     */
+    @Getter
+    @Setter
+    private boolean verifyPeer = true;
+
+    /**
+     * 建立连接的超时时间。
+     */
+    @Getter
+    @Setter
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 命令的超时时间，超时的命令以异常完成，并被断路器记录为失败。
+     */
+    @Getter
+    @Setter
+    private Duration commandTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Redis 的断路器选项。
+     */
+    @Getter
+    @Setter
+    private CircuitBreakerOptions circuitBreakerOptions = new CircuitBreakerOptions();
+
+    /**
+     * 健康检查的时间间隔，未连接到 Redis 时按该间隔重新连接，断路器打开时按该间隔发送 {@code PING} 检查 Redis 是否已经恢复。
+     */
+    @Getter
+    @Setter
+    private Duration healthCheckInterval = Duration.ofSeconds(1);
+
+    /**
+     * 向 Redis 发送命令时使用连接的方式。
+     */
+    @Getter
+    @Setter
+    private RedisConnectionMode connectionMode = RedisConnectionMode.SHARED;
+
+    /**
+     * 在 {@link RedisConnectionMode#POOLED} 模式中使用的连接数量。
+     */
+    @Getter
+    @Setter
+    private int poolSize = 4;
+
+    /**
+     * 在 {@link RedisConnectionMode#BATCHED} 模式中触发刷新的缓冲命令数量。
+     */
+    @Getter
+    @Setter
+    private int flushSize = 64;
+
+    /**
+     * 在 {@link RedisConnectionMode#BATCHED} 模式中刷新缓冲命令的时间间隔。
+     */
+    @Getter
+    @Setter
+    private Duration flushInterval = Duration.ofMillis(1);
+
+    /**
+     * 是否在缓存未命中时通过 Redis 锁在多个节点之间合并加载。
+     */
+    @Getter
+    @Setter
+    private boolean distributedLock = false;
+
+    /**
+     * Redis 锁的超时时间，也是未获得锁的节点等待其他节点加载的最长时间。
+     */
+    @Getter
+    @Setter
+    private Duration lockTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 在多个节点之间使内存缓存中的值失效的方式。
+     */
+    @Getter
+    @Setter
+    private InvalidationMode invalidationMode = InvalidationMode.NONE;
+
+    /**
+     * 在 {@link InvalidationMode#TRACKING} 模式中被跟踪的键的前缀，Redis 只在以该前缀开头的键被修改时通知当前节点，
+     * 未指定时跟踪所有的键。
+     */
+    @Getter
+    @Setter
+    private String trackingPrefix;
+
+    /**
+     * 在 {@link InvalidationMode#PUBSUB} 模式中用于发布失效消息的频道。
+     */
+    @Getter
+    @Setter
+    private String invalidationChannel = "hybridcache:invalidation";
+
+    /**
+     * 在 {@link InvalidationMode#PUBSUB} 模式中合并失效消息的时间间隔，在此期间内写入或移除的键通过一条消息发布。
+     */
+    @Getter
+    @Setter
+    private Duration invalidationBatchInterval = Duration.ofMillis(10);
 }
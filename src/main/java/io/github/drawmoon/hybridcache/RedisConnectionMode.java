@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+/**
+ * 表示 {@link HybridCache} 向 Redis 发送命令时使用连接的方式。
+ */
+public enum RedisConnectionMode {
+    /**
+     * 表示所有命令通过一个共享的多路复用连接发送，每个命令立即写入套接字。
+     */
+    SHARED,
+
+    /**
+     * 表示所有命令通过一个共享的多路复用连接发送，写入命令先在连接中缓冲，
+     * 在缓冲的命令数量达到 {@link RedisCacheOptions#getFlushSize()} 或经过
+     * {@link RedisCacheOptions#getFlushInterval()} 后一次性写入套接字。
+     * <p>
+     * 读取命令立即发送，并连同之前缓冲的写入命令一起写入套接字，因此不会读取到比当前节点的写入更旧的值。
+     * 写入命令的完成可能延迟最多一个刷新间隔，以换取更少的系统调用和网络包。
+     */
+    BATCHED,
+
+    /**
+     * 表示命令按键分配到 {@link RedisCacheOptions#getPoolSize()} 个连接上发送，
+     * 适用于单个连接的 I/O 线程成为瓶颈或存在耗时较长的命令的场景。
+     * <p>
+     * 同一个键的命令总是通过同一个连接发送，不同键的命令之间不保证顺序。
+     */
+    POOLED
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 管理到 Redis 的连接，并将命令分配到这些连接上发送。
+ */
+abstract class RedisConnector implements AutoCloseable {
+    /**
+     * 按照选项中的 {@link RedisTopology} 创建一个连接器，并打开到 Redis 的连接。
+     * @param options Redis 缓存选项。
+     * @param scheduler 用于在 {@link RedisConnectionMode#BATCHED} 模式中按时间间隔刷新缓冲命令的调度器。
+     * @return 一个新的连接器实例。
+     */
+    static RedisConnector create(RedisCacheOptions options, ScheduledExecutorService scheduler) {
+        switch (options.getTopology()) {
+            case CLUSTER:
+                List<RedisURI> seeds = split(options.getConfiguration()).stream()
+                        .map(configuration -> createUri(configuration, null, options))
+                        .collect(Collectors.toList());
+                return MultiplexedRedisConnector.cluster(seeds, options, scheduler);
+            case SHARDED:
+                return new ShardedRedisConnector(split(options.getConfiguration()), options, scheduler);
+            default:
+                RedisURI uri = createUri(options.getConfiguration(), options.getSentinelMasterId(), options);
+                return MultiplexedRedisConnector.standalone(uri, options, scheduler);
+        }
+    }
+
+    /**
+     * 根据配置创建用于连接到 Redis 的 URI。
+     * <p>
+     * 配置可以是完整的 URI，例如 {@code rediss://host:6380} 或 {@code redis-sentinel://host:26379#mymaster}；
+     * 也可以是 {@code host:port} 形式的地址，此时如果给定了 Sentinel 主节点名称，则将其视为以逗号分隔的 Sentinel 地址列表。
+     * @param configuration 一个节点的配置。
+     * @param sentinelMasterId Sentinel 监控的主节点名称或 {@code null}。
+     * @param options Redis 缓存选项。
+     * @return 用于连接到 Redis 的 URI。
+     */
+    static RedisURI createUri(String configuration, String sentinelMasterId, RedisCacheOptions options) {
+        RedisURI uri;
+        if (configuration.contains("://")) {
+            uri = RedisURI.create(configuration);
+        } else if (sentinelMasterId != null) {
+            uri = RedisURI.create("redis-sentinel://" + configuration + "#" + sentinelMasterId);
+        } else {
+            uri = RedisURI.create("redis://" + configuration);
+        }
+
+        if (options.isSsl()) {
+            uri.setSsl(true);
+            uri.setVerifyPeer(options.isVerifyPeer());
+        }
+        uri.setTimeout(options.getCommandTimeout());
+        return uri;
+    }
+
+    /**
+     * 将以逗号分隔的多个节点的配置拆分为每个节点的配置。
+     * <p>
+     * 如果配置中包含 URI，则只在下一个 URI 之前拆分，使 {@code redis-sentinel://} 中的 Sentinel 地址列表保持完整。
+     * @param configuration 以逗号分隔的多个节点的配置。
+     * @return 每个节点的配置。
+     */
+    static List<String> split(String configuration) {
+        String separator = configuration.contains("://") ? ",(?=\\s*[a-zA-Z][a-zA-Z0-9+.-]*://)" : ",";
+        return Arrays.stream(configuration.split(separator))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 立即发送一个命令，在 {@link RedisConnectionMode#BATCHED} 模式中同时发送之前缓冲的命令。
+     * @param key 命令所操作的键，用于选择连接。
+     * @param command 在连接上发出命令的函数，接收连接的命令接口和键。
+     * @param <T> 命令的结果类型。
+     * @return 命令的结果。
+     */
+    abstract <T> CompletableFuture<T> execute(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command);
+
+    /**
+     * 发送一个写入命令，在 {@link RedisConnectionMode#BATCHED} 模式中先将命令缓冲，
+     * 直到缓冲的命令数量达到刷新阈值、经过刷新间隔或发送下一个读取命令。
+     * @param key 命令所操作的键，用于选择连接。
+     * @param command 在连接上发出命令的函数，接收连接的命令接口和键。
+     * @param <T> 命令的结果类型。
+     * @return 命令的结果。
+     */
+    abstract <T> CompletableFuture<T> enqueue(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command);
+
+    /**
+     * 向 Redis 发送 {@code PING} 命令，用于检查 Redis 是否可用。
+     * @return 一个在收到回复时结束的 {@link CompletableFuture}。
+     */
+    abstract CompletableFuture<Void> ping();
+
+    /**
+     * 获取多个键的值。
+     * @param keys 多个键。
+     * @return 一个在读取完成时返回与键的顺序相同的键值对列表的 {@link CompletableFuture}。
+     */
+    abstract CompletableFuture<List<KeyValue<byte[], byte[]>>> mget(byte[][] keys);
+
+    /**
+     * 移除多个键。
+     * @param keys 多个键。
+     * @return 一个在移除完成时返回被移除的键的数量的 {@link CompletableFuture}。
+     */
+    abstract CompletableFuture<Long> del(byte[][] keys);
+
+    /**
+     * 在用于批量写入的连接上写入多个键值对，并将它们一次性发送。
+     * @param entries 多个键值对。
+     * @param setArgs 写入的参数。
+     * @return 一个在所有写入完成时结束的 {@link CompletableFuture}。
+     */
+    abstract CompletableFuture<Void> setAll(List<KeyValue<byte[], byte[]>> entries, SetArgs setArgs);
+
+    /**
+     * 打开一个用于订阅频道的连接。
+     * @return 一个新的订阅连接。
+     */
+    abstract StatefulRedisPubSubConnection<byte[], byte[]> connectPubSub();
+
+    /**
+     * 获取在 {@link InvalidationMode#TRACKING} 模式中需要被跟踪的连接。
+     * @return 用于读取缓存的连接，在 Redis 集群中为空列表。
+     */
+    abstract List<StatefulRedisConnection<byte[], byte[]>> getTrackedConnections();
+
+    /**
+     * 添加一个在 {@link #getTrackedConnections()} 中的连接断开后重新连接时执行的回调。
+     * <p>
+     * 回调在 Redis 客户端的 I/O 线程上执行，不能阻塞。
+     * @param listener 接收重新连接的连接的回调。
+     */
+    abstract void addReconnectListener(Consumer<StatefulRedisConnection<byte[], byte[]>> listener);
+
+    /**
+     * 获取连接是否已打开。
+     * @return 如果所有用于发送命令的连接都已打开，则为 {@code true}。
+     */
+    abstract boolean isOpen();
+
+    // Closes this resource, relinquishing any underlying resources.
+    @Override
+    public abstract void close();
+}
@@ -0,0 +1,45 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+/**
+ * 表示 {@link HybridCache} 所使用的 Redis 的部署方式。
+ */
+public enum RedisTopology {
+    /**
+     * 表示单个 Redis 节点或由 Sentinel 监控的主从节点。
+     */
+    STANDALONE,
+
+    /**
+     * 表示 Redis 集群，配置为以逗号分隔的种子节点地址列表。
+     * <p>
+     * 命令按键的哈希槽路由到对应的节点，多键操作按哈希槽拆分后分别发送到各个节点。
+     * 集群中不支持 {@link InvalidationMode#TRACKING} 模式，请使用 {@link InvalidationMode#PUBSUB} 模式。
+     */
+    CLUSTER,
+
+    /**
+     * 表示多个相互独立的 Redis 节点，配置为以逗号分隔的节点地址列表。
+     * <p>
+     * 键通过一致性哈希分配到节点上，增加或移除节点时只有少部分键需要重新分配，多键操作按节点拆分后分别发送。
+     * 所有节点的配置必须相同，否则同一个键可能被分配到不同的节点上。
+     */
+    SHARDED
+}
@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.io.IOException;
+
+/**
+ * 用于在对象和存储在缓存中的字节数组之间转换的序列化器。
+ * <p>
+ * 字符串总是以 UTF-8 编码存储，不经过序列化器。实现必须是线程安全的。
+ */
+public interface Serializer {
+    /**
+     * 将对象转换为字节数组。
+     * @param value 待转换的对象。
+     * @return 转换后的字节数组。
+     * @throws IOException 可能会引发 {@link IOException} 异常。
+     */
+    byte[] serialize(Object value) throws IOException;
+
+    /**
+     * 将字节数组转换为对象。
+     * @param <T> 转换为对象的对象类型。
+     * @param bytes 待转换的字节数组。
+     * @param clazz 转换为对象的对象类型。
+     * @return 转换后的对象。
+     * @throws IOException 可能会引发 {@link IOException} 异常。
+     */
+    <T> T deserialize(byte[] bytes, Class<T> clazz) throws IOException;
+}
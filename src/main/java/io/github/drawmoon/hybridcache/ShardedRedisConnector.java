@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import io.github.drawmoon.hybridcache.utils.HashUtils;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 通过一致性哈希将键分配到多个相互独立的 Redis 节点上的连接器。
+ * <p>
+ * 每个节点在哈希环上占据多个虚拟节点，虚拟节点的位置只由节点的配置决定，与节点的顺序无关。
+ * 多键操作按节点拆分后分别发送，并按原来的顺序合并结果。
+ */
+final class ShardedRedisConnector extends RedisConnector {
+    // 每个节点在哈希环上的虚拟节点数量。
+    private static final int VIRTUAL_NODES = 160;
+
+    // 每个节点的连接器。
+    private final List<MultiplexedRedisConnector> shards = new ArrayList<>();
+    // 哈希环，虚拟节点的位置与节点的连接器的映射。
+    private final NavigableMap<Long, MultiplexedRedisConnector> ring = new TreeMap<>();
+
+    /**
+     * 创建一个新的连接器实例，并打开到每个节点的连接。
+     * @param endpoints 每个节点的配置。
+     * @param options Redis 缓存选项。
+     * @param scheduler 用于在 {@link RedisConnectionMode#BATCHED} 模式中按时间间隔刷新缓冲命令的调度器。
+     */
+    ShardedRedisConnector(List<String> endpoints, RedisCacheOptions options, ScheduledExecutorService scheduler) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one Redis endpoint is required");
+        }
+
+        try {
+            for (String endpoint : endpoints) {
+                MultiplexedRedisConnector shard =
+                        MultiplexedRedisConnector.standalone(createUri(endpoint, null, options), options, scheduler);
+                this.shards.add(shard);
+                for (int i = 0; i < VIRTUAL_NODES; i++) {
+                    this.ring.put(hash(endpoint + "#" + i), shard);
+                }
+            }
+        } catch (RuntimeException e) {
+            this.shards.forEach(MultiplexedRedisConnector::close);
+            throw e;
+        }
+    }
+
+    @Override
+    <T> CompletableFuture<T> execute(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command) {
+        return this.shard(key).execute(key, command);
+    }
+
+    @Override
+    <T> CompletableFuture<T> enqueue(
+            byte[] key, BiFunction<RedisClusterAsyncCommands<byte[], byte[]>, byte[], RedisFuture<T>> command) {
+        return this.shard(key).enqueue(key, command);
+    }
+
+    @Override
+    CompletableFuture<Void> ping() {
+        return CompletableFuture.allOf(
+                this.shards.stream().map(MultiplexedRedisConnector::ping).toArray(CompletableFuture<?>[]::new));
+    }
+
+    @Override
+    CompletableFuture<List<KeyValue<byte[], byte[]>>> mget(byte[][] keys) {
+        Map<MultiplexedRedisConnector, List<Integer>> groups = this.group(keys.length, i -> keys[i]);
+
+        List<KeyValue<byte[], byte[]>> results = new ArrayList<>(Collections.nCopies(keys.length, null));
+        List<CompletableFuture<?>> futures = new ArrayList<>(groups.size());
+        groups.forEach((shard, indexes) -> {
+            byte[][] shardKeys = indexes.stream().map(i -> keys[i]).toArray(byte[][]::new);
+            futures.add(shard.mget(shardKeys).thenAccept(keyValues -> {
+                for (int i = 0; i < keyValues.size(); i++) {
+                    results.set(indexes.get(i), keyValues.get(i));
+                }
+            }));
+        });
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> Collections.unmodifiableList(results));
+    }
+
+    @Override
+    CompletableFuture<Long> del(byte[][] keys) {
+        Map<MultiplexedRedisConnector, List<Integer>> groups = this.group(keys.length, i -> keys[i]);
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>(groups.size());
+        groups.forEach((shard, indexes) ->
+                futures.add(shard.del(indexes.stream().map(i -> keys[i]).toArray(byte[][]::new))));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(
+                        v -> futures.stream().mapToLong(CompletableFuture::join).sum());
+    }
+
+    @Override
+    CompletableFuture<Void> setAll(List<KeyValue<byte[], byte[]>> entries, SetArgs setArgs) {
+        Map<MultiplexedRedisConnector, List<Integer>> groups =
+                this.group(entries.size(), i -> entries.get(i).getKey());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+        groups.forEach((shard, indexes) ->
+                futures.add(shard.setAll(indexes.stream().map(entries::get).collect(Collectors.toList()), setArgs)));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    @Override
+    StatefulRedisPubSubConnection<byte[], byte[]> connectPubSub() {
+        // 所有节点的配置相同，因此所有应用节点都通过第一个节点交换失效消息
+        return this.shards.get(0).connectPubSub();
+    }
+
+    @Override
+    List<StatefulRedisConnection<byte[], byte[]>> getTrackedConnections() {
+        return this.shards.stream()
+                .flatMap(shard -> shard.getTrackedConnections().stream())
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+
+    @Override
+    void addReconnectListener(Consumer<StatefulRedisConnection<byte[], byte[]>> listener) {
+        this.shards.forEach(shard -> shard.addReconnectListener(listener));
+    }
+
+    @Override
+    boolean isOpen() {
+        return this.shards.stream().allMatch(MultiplexedRedisConnector::isOpen);
+    }
+
+    // Closes this resource, relinquishing any underlying resources.
+    @Override
+    public void close() {
+        this.shards.forEach(MultiplexedRedisConnector::close);
+    }
+
+    /**
+     * 选择一个键所在的节点，即哈希环上顺时针方向的第一个虚拟节点所属的节点。
+     * @param key 一个键。
+     * @return 节点的连接器。
+     */
+    private MultiplexedRedisConnector shard(byte[] key) {
+        if (this.shards.size() == 1) {
+            return this.shards.get(0);
+        }
+        Map.Entry<Long, MultiplexedRedisConnector> entry = this.ring.ceilingEntry(HashUtils.hash64(key));
+        return entry != null ? entry.getValue() : this.ring.firstEntry().getValue();
+    }
+
+    /**
+     * 将多个键按所在的节点分组。
+     * @param size 键的数量。
+     * @param keyAt 获取一个位置上的键的函数。
+     * @return 节点的连接器与该节点上的键的位置的映射。
+     */
+    private Map<MultiplexedRedisConnector, List<Integer>> group(int size, IntFunction<byte[]> keyAt) {
+        Map<MultiplexedRedisConnector, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            groups.computeIfAbsent(this.shard(keyAt.apply(i)), shard -> new ArrayList<>())
+                    .add(i);
+        }
+        return groups;
+    }
+
+    /**
+     * 计算一个字符串在哈希环上的位置。
+     * @param value 一个字符串，按 UTF-8 编码。
+     * @return 哈希环上的位置。
+     */
+    private static long hash(String value) {
+        return HashUtils.hash64(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
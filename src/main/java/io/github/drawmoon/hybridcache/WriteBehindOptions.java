@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 延迟写入选项。
+ * <p>
+ * 启用后，写入 {@link HybridCachePlace#DISTRIBUTED} 的值先写入内存缓存并进入队列，由后台按批写入 Redis 或分布式对象存储，
+ * 调用者不等待 Redis 或存储的写入。同一个键在写入之前的多次写入合并为最后一次。
+ */
+public class WriteBehindOptions {
+    /**
+     * 是否启用延迟写入。
+     */
+    @Getter
+    @Setter
+    private boolean enabled = false;
+
+    /**
+     * 队列中最多等待写入的键的数量，队列已满时新的键直接写入 Redis 或存储。
+     */
+    @Getter
+    @Setter
+    private int capacity = 10000;
+
+    /**
+     * 每批写入的最多键的数量，队列中等待的键达到该数量时立即开始写入。
+     */
+    @Getter
+    @Setter
+    private int batchSize = 256;
+
+    /**
+     * 后台检查队列并写入的时间间隔。
+     */
+    @Getter
+    @Setter
+    private Duration flushInterval = Duration.ofMillis(10);
+}
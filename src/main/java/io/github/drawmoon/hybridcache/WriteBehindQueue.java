@@ -0,0 +1,274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 有界的延迟写入队列，同一个键在写入之前的多次写入合并为最后一次。
+ * <p>
+ * 队列中的键按第一次进入队列的顺序分批交给写入函数，同一时间只有一批正在写入，写入完成后再取下一批。
+ * 正在写入的值在写入完成之前仍然可以通过 {@link #peek(String)} 读取。
+ */
+final class WriteBehindQueue implements AutoCloseable {
+    // 等待写入的值。
+    private final ConcurrentMap<String, Entry> pending = new ConcurrentHashMap<>();
+    // 等待写入的键的顺序，一个键可能在被取出后留在其中，取出时跳过。
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+    // 正在写入的值。
+    private final ConcurrentMap<String, Entry> writing = new ConcurrentHashMap<>();
+    // 队列中剩余的容量，每个等待写入的键占用一个许可。
+    private final Semaphore capacity;
+
+    // 每批写入的最多键的数量。
+    private final int batchSize;
+    // 写入一批值的函数。
+    private final Function<List<Entry>, CompletableFuture<Void>> writer;
+    // 用于执行写入的执行器。
+    private final Executor executor;
+    // 是否正在写入。
+    private final AtomicBoolean draining = new AtomicBoolean();
+    // 按时间间隔检查队列的任务。
+    private final ScheduledFuture<?> flushTask;
+    // 队列已被关闭。
+    private volatile boolean closed;
+
+    /**
+     * 创建一个新的延迟写入队列实例。
+     * @param options 延迟写入选项。
+     * @param writer 写入一批值的函数，返回的 {@link CompletableFuture} 在写入完成时结束。
+     * @param executor 用于执行写入的执行器。
+     * @param scheduler 用于按时间间隔检查队列的调度器。
+     */
+    WriteBehindQueue(
+            WriteBehindOptions options,
+            Function<List<Entry>, CompletableFuture<Void>> writer,
+            Executor executor,
+            ScheduledExecutorService scheduler) {
+        this.capacity = new Semaphore(Math.max(options.getCapacity(), 1));
+        this.batchSize = Math.max(options.getBatchSize(), 1);
+        this.writer = writer;
+        this.executor = executor;
+
+        long interval = Math.max(options.getFlushInterval().toNanos(), 1);
+        this.flushTask = scheduler.scheduleWithFixedDelay(this::schedule, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 将一个值放入队列，替换该键正在等待写入的值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @param bytes 待写入的值。
+     * @param entryOptions 值的缓存选项。
+     * @return 如果值已放入队列，则为 {@code true}；如果队列已满或已关闭，则为 {@code false}，调用者需要直接写入。
+     */
+    boolean offer(String key, byte[] bytes, HybridCacheEntryOptions entryOptions) {
+        if (this.closed) {
+            return false;
+        }
+
+        Entry entry = new Entry(key, bytes, entryOptions);
+        if (this.pending.replace(key, entry) != null) {
+            return true;
+        }
+        if (!this.capacity.tryAcquire()) {
+            return false;
+        }
+
+        if (this.pending.put(key, entry) != null) {
+            this.capacity.release();
+        } else {
+            this.order.add(key);
+        }
+
+        if (this.size() >= this.batchSize) {
+            this.schedule();
+        }
+        return true;
+    }
+
+    /**
+     * 获取一个键等待写入或正在写入的值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 最后一次放入队列的值或 {@code null}。
+     */
+    byte[] peek(String key) {
+        Entry entry = this.pending.get(key);
+        if (entry == null) {
+            entry = this.writing.get(key);
+        }
+        return entry != null ? entry.bytes : null;
+    }
+
+    /**
+     * 取消一个键等待写入的值。
+     * @param key 一个字符串，用于识别所处位置的值。
+     * @return 一个在该键正在进行的写入完成时结束的 {@link CompletableFuture}，调用者在此之后才能移除该键。
+     */
+    CompletableFuture<Void> cancel(String key) {
+        if (this.pending.remove(key) != null) {
+            this.capacity.release();
+        }
+
+        Entry entry = this.writing.get(key);
+        return entry != null ? entry.written : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 获取等待写入的键的数量。
+     * @return 等待写入的键的数量。
+     */
+    int size() {
+        return this.pending.size();
+    }
+
+    /**
+     * 停止接收新的值，并等待队列中的值全部写入。
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.flushTask.cancel(false);
+
+        while (true) {
+            this.drain();
+
+            List<Entry> entries = new ArrayList<>(this.writing.values());
+            if (entries.isEmpty()) {
+                if (this.pending.isEmpty()) {
+                    return;
+                }
+                // 另一个线程正在取出下一批
+                Thread.yield();
+                continue;
+            }
+            entries.forEach(entry -> entry.written.join());
+        }
+    }
+
+    /**
+     * 如果队列中有等待写入的值，则在执行器上开始写入。
+     */
+    private void schedule() {
+        if (this.pending.isEmpty() || this.draining.get()) {
+            return;
+        }
+
+        try {
+            this.executor.execute(this::drain);
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    /**
+     * 逐批写入队列中的值，直到队列为空，同一时间只有一个线程在写入。
+     */
+    private void drain() {
+        if (!this.draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<Entry> batch;
+            while (!(batch = this.poll()).isEmpty()) {
+                CompletableFuture<Void> future;
+                try {
+                    future = this.writer.apply(batch);
+                } catch (Exception e) {
+                    future = CompletableFuture.completedFuture(null);
+                }
+
+                try {
+                    future.join();
+                } catch (Exception e) {
+                    // ignore
+                }
+
+                for (Entry entry : batch) {
+                    this.writing.remove(entry.key, entry);
+                    entry.written.complete(null);
+                }
+            }
+        } finally {
+            this.draining.set(false);
+        }
+    }
+
+    /**
+     * 从队列中取出下一批值，并将它们标记为正在写入。
+     * @return 下一批值，队列为空时为空列表。
+     */
+    private List<Entry> poll() {
+        List<Entry> batch = new ArrayList<>(Math.min(this.batchSize, this.size()));
+        String key;
+        while (batch.size() < this.batchSize && (key = this.order.poll()) != null) {
+            Entry entry = this.pending.get(key);
+            if (entry == null) {
+                continue;
+            }
+
+            // 先标记为正在写入，再从等待写入的值中移除，使读取者总能看到该值
+            this.writing.put(key, entry);
+            if (this.pending.remove(key, entry)) {
+                this.capacity.release();
+                batch.add(entry);
+            } else {
+                // 值在取出时被替换或取消，保留新的值等待下一批
+                this.writing.remove(key, entry);
+                if (this.pending.containsKey(key)) {
+                    this.order.add(key);
+                }
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 等待写入的一个值。
+     */
+    static final class Entry {
+        // 一个字符串，用于识别所处位置的值。
+        final String key;
+        // 待写入的值。
+        final byte[] bytes;
+        // 值的缓存选项。
+        final HybridCacheEntryOptions entryOptions;
+        // 在值写入完成时结束。
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        Entry(String key, byte[] bytes, HybridCacheEntryOptions entryOptions) {
+            this.key = key;
+            this.bytes = bytes;
+            this.entryOptions = entryOptions;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.micrometer;
+
+import io.github.drawmoon.hybridcache.HybridCacheTier;
+import io.github.drawmoon.hybridcache.MetricsRecorder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个将指标发布到 Micrometer 的记录器。
+ * <p>
+ * Micrometer 是可选的依赖，只有使用该记录器时才需要将 {@code io.micrometer:micrometer-core} 添加到类路径中。
+ * 各层级的计数器和计时器在创建时注册，记录指标时不再查找注册表；错误按层级和异常类型计数。
+ */
+public class MicrometerMetricsRecorder implements MetricsRecorder {
+    // 指标名称的默认前缀。
+    private static final String DEFAULT_PREFIX = "hybridcache";
+
+    // 注册指标的注册表。
+    private final MeterRegistry registry;
+    // 指标名称的前缀。
+    private final String prefix;
+    // 附加到所有指标的标签。
+    private final Tags tags;
+
+    // 各层级的命中次数。
+    private final Map<HybridCacheTier, Counter> hits = new EnumMap<>(HybridCacheTier.class);
+    // 各层级的未命中次数。
+    private final Map<HybridCacheTier, Counter> misses = new EnumMap<>(HybridCacheTier.class);
+    // 各层级被淘汰的缓存项的数量。
+    private final Map<HybridCacheTier, Counter> evictions = new EnumMap<>(HybridCacheTier.class);
+    // 各层级读取的字节数。
+    private final Map<HybridCacheTier, Counter> bytesRead = new EnumMap<>(HybridCacheTier.class);
+    // 各层级写入的字节数。
+    private final Map<HybridCacheTier, Counter> bytesWritten = new EnumMap<>(HybridCacheTier.class);
+    // 各层级读取值的延迟。
+    private final Map<HybridCacheTier, Timer> getLatency = new EnumMap<>(HybridCacheTier.class);
+    // 各层级写入值的延迟。
+    private final Map<HybridCacheTier, Timer> setLatency = new EnumMap<>(HybridCacheTier.class);
+    // 加载成功的耗时。
+    private final Timer loadSuccess;
+    // 加载失败的耗时。
+    private final Timer loadFailure;
+    // 序列化的耗时。
+    private final Timer serialization;
+    // 反序列化的耗时。
+    private final Timer deserialization;
+    // 热点键被固定到内存缓存中的次数，不按键添加标签以免标签的数量无限增长。
+    private final Counter hotKeyPins;
+
+    /**
+     * 创建一个新的记录器实例。
+     * @param registry 注册指标的注册表。
+     */
+    public MicrometerMetricsRecorder(MeterRegistry registry) {
+        this(registry, DEFAULT_PREFIX, Tags.empty());
+    }
+
+    /**
+     * 创建一个新的记录器实例。
+     * @param registry 注册指标的注册表。
+     * @param prefix 指标名称的前缀。
+     * @param tags 附加到所有指标的标签，例如用于区分多个缓存实例。
+     */
+    public MicrometerMetricsRecorder(MeterRegistry registry, String prefix, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.prefix = prefix;
+        this.tags = Tags.of(tags);
+
+        for (HybridCacheTier tier : HybridCacheTier.values()) {
+            Tags tierTags = this.tags.and("tier", tier.name().toLowerCase(Locale.ROOT));
+            this.hits.put(tier, this.counter("hits", tierTags, null));
+            this.misses.put(tier, this.counter("misses", tierTags, null));
+            this.evictions.put(tier, this.counter("evictions", tierTags, null));
+            this.bytesRead.put(tier, this.counter("bytes.read", tierTags, "bytes"));
+            this.bytesWritten.put(tier, this.counter("bytes.written", tierTags, "bytes"));
+            this.getLatency.put(tier, this.timer("get", tierTags));
+            this.setLatency.put(tier, this.timer("set", tierTags));
+        }
+
+        this.loadSuccess = this.timer("load", this.tags.and("result", "success"));
+        this.loadFailure = this.timer("load", this.tags.and("result", "failure"));
+        this.serialization = this.timer("serialization", this.tags.and("operation", "serialize"));
+        this.deserialization = this.timer("serialization", this.tags.and("operation", "deserialize"));
+        this.hotKeyPins = this.counter("hotkey.pins", this.tags, null);
+    }
+
+    @Override
+    public void recordHit(HybridCacheTier tier) {
+        this.hits.get(tier).increment();
+    }
+
+    @Override
+    public void recordMiss(HybridCacheTier tier) {
+        this.misses.get(tier).increment();
+    }
+
+    @Override
+    public void recordEviction(HybridCacheTier tier) {
+        this.evictions.get(tier).increment();
+    }
+
+    @Override
+    public void recordError(HybridCacheTier tier, Throwable error) {
+        Tags errorTags = this.tags
+                .and("tier", tier.name().toLowerCase(Locale.ROOT))
+                .and("exception", error.getClass().getSimpleName());
+        this.counter("errors", errorTags, null).increment();
+    }
+
+    @Override
+    public void recordGetLatency(HybridCacheTier tier, long nanos) {
+        this.getLatency.get(tier).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSetLatency(HybridCacheTier tier, long nanos) {
+        this.setLatency.get(tier).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordBytesRead(HybridCacheTier tier, long bytes) {
+        this.bytesRead.get(tier).increment(bytes);
+    }
+
+    @Override
+    public void recordBytesWritten(HybridCacheTier tier, long bytes) {
+        this.bytesWritten.get(tier).increment(bytes);
+    }
+
+    @Override
+    public void recordLoad(long nanos, boolean success) {
+        (success ? this.loadSuccess : this.loadFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSerialization(long nanos) {
+        this.serialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordDeserialization(long nanos) {
+        this.deserialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordHotKeyPin(String key) {
+        this.hotKeyPins.increment();
+    }
+
+    private Counter counter(String name, Tags tags, String baseUnit) {
+        return Counter.builder(this.prefix + "." + name)
+                .tags(tags)
+                .baseUnit(baseUnit)
+                .register(this.registry);
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(this.prefix + "." + name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(this.registry);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.utils;
+
+/**
+ * 一个用于估计键的访问频率的 Count-Min Sketch。
+ * <p>
+ * 每个键映射到 {@value #DEPTH} 行中的各一个计数器，估计值取其中的最小值。当记录的次数达到
+ * 宽度的十倍时，所有计数器减半，使估计值偏向近期的访问。
+ */
+public class FrequencySketch {
+    // Sketch 的行数。
+    private static final int DEPTH = 4;
+    // 每一行的哈希种子。
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    // 计数器，按行依次排列。
+    private final int[] table;
+    // 每一行的宽度减一，宽度为 2 的幂。
+    private final int mask;
+    // 触发衰减的记录次数。
+    private final int sampleSize;
+    // 自上次衰减以来的记录次数。
+    private int size;
+
+    /**
+     * 创建一个新的 Sketch 实例。
+     * @param expectedKeys 预期的不同键的数量，用于确定 Sketch 的宽度。
+     */
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.table = new int[width * DEPTH];
+        this.mask = width - 1;
+        this.sampleSize = width * 10;
+    }
+
+    /**
+     * 记录一次对给定键的访问。
+     * @param key 被访问的键。
+     * @return 记录后给定键的估计访问频率。
+     */
+    public synchronized int increment(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = this.indexOf(hash, i);
+            if (this.table[index] < Integer.MAX_VALUE) {
+                this.table[index]++;
+            }
+            frequency = Math.min(frequency, this.table[index]);
+        }
+
+        if (++this.size >= this.sampleSize) {
+            this.reset();
+        }
+        return frequency;
+    }
+
+    /**
+     * 获取给定键的估计访问频率。
+     * @param key 待估计的键。
+     * @return 给定键的估计访问频率。
+     */
+    public synchronized int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, this.table[this.indexOf(hash, i)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * 将所有计数器减半。
+     */
+    private void reset() {
+        for (int i = 0; i < this.table.length; i++) {
+            this.table[i] >>>= 1;
+        }
+        this.size >>>= 1;
+    }
+
+    /**
+     * 获取给定哈希值在指定行中的计数器位置。
+     * @param hash 键的哈希值。
+     * @param row 行的序号。
+     * @return 计数器在表中的位置。
+     */
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        h ^= h >>> 16;
+        return row * (this.mask + 1) + (h & this.mask);
+    }
+
+    /**
+     * 对哈希值进行再散列，以减少低质量哈希函数带来的冲突。
+     * @param hash 原始的哈希值。
+     * @return 再散列后的哈希值。
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
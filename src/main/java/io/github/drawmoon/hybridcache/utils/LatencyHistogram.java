@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个记录延迟分布的线程安全的直方图。
+ * <p>
+ * 与 HdrHistogram 类似，值按对数线性的桶计数：小于 32 的值各占一个桶，更大的值在每个 2 的幂区间内分为 16 个桶，
+ * 因此相对误差不超过 6.25%。记录一个值只需要常数次位运算和一次原子加法，不分配内存。
+ */
+public final class LatencyHistogram {
+    // 每个 2 的幂区间内的桶的数量的位数。
+    private static final int SUB_BUCKET_BITS = 4;
+    // 每个 2 的幂区间内的桶的数量。
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // 各占一个桶的值的上限。
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    // 桶的数量，覆盖所有非负的 long 值。
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+    // 每个桶中记录的值的数量。
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    // 记录的值的数量。
+    private final LongAdder count = new LongAdder();
+    // 记录的值的总和。
+    private final LongAdder total = new LongAdder();
+    // 记录的最大值。
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值，负数按 0 记录。
+     * @param value 记录的值。
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        this.buckets.incrementAndGet(indexOf(v));
+        this.count.increment();
+        this.total.add(v);
+        if (v > this.max.get()) {
+            this.max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    /**
+     * 获取记录的值的数量。
+     * @return 记录的值的数量。
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * 获取记录的值的总和。
+     * @return 记录的值的总和。
+     */
+    public long getTotal() {
+        return this.total.sum();
+    }
+
+    /**
+     * 获取记录的最大值。
+     * @return 记录的最大值，没有记录时返回 0。
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * 获取记录的值的平均值。
+     * @return 记录的值的平均值，没有记录时返回 0。
+     */
+    public double getMean() {
+        long count = this.getCount();
+        return count > 0 ? (double) this.getTotal() / count : 0;
+    }
+
+    /**
+     * 获取给定百分位上的值。
+     * @param percentile 百分位，取值范围为 0 到 100。
+     * @return 不小于该百分位上的值的桶的上界，不超过记录的最大值，没有记录时返回 0。
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * 计算一个值所在的桶的索引。
+     * @param value 非负的值。
+     * @return 桶的索引。
+     */
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 计算一个桶中的最大值。
+     * @param index 桶的索引。
+     * @return 桶中的最大值。
+     */
+    private static long upperBoundOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long upperBound = ((subBucket + 1) << shift) - 1;
+        return upperBound > 0 ? upperBound : Long.MAX_VALUE;
+    }
+}
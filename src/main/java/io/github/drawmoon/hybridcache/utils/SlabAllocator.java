@@ -0,0 +1,288 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一个在堆外内存上分配存储块的 Slab 分配器。
+ * <p>
+ * 堆外内存被划分为固定大小的 Slab，每个 Slab 在使用时被分配给一个大小等级，并被切分为该等级的存储块。
+ * 存储块的大小为 2 的幂，最小为 {@value #MIN_BLOCK_SIZE} 字节，释放的存储块进入所属等级的空闲链表以便复用，
+ * 当一个 Slab 中的存储块全部被释放时，该 Slab 被回收，可以重新分配给任意大小等级。
+ * 存储块的地址由 Slab 的序号和块在 Slab 中的偏移量组成。
+ * <p>
+ * {@link #clear()} 不会回收仍有存储块在使用的 Slab，这些 Slab 在最后一个存储块被释放时才被回收，
+ * 因此持有存储块的读取者不会读取到已被复用的 Slab。
+ */
+public class SlabAllocator {
+    // 最小的存储块大小的位移量。
+    private static final int MIN_BLOCK_SHIFT = 6;
+    // 最小的存储块大小。
+    private static final int MIN_BLOCK_SIZE = 1 << MIN_BLOCK_SHIFT;
+
+    // 每个 Slab 的字节数。
+    private final int slabSize;
+    // 可以分配的 Slab 的最大数量。
+    private final int maxSlabs;
+    // 已分配的 Slab，增长或替换时整体替换，使读写无需加锁，已释放内存的 Slab 为 null。
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    // 每个 Slab 所属的大小等级，-1 表示未分配给任何等级。
+    private int[] slabClasses = new int[0];
+    // 每个 Slab 中正在使用的存储块的数量。
+    private int[] slabUsages = new int[0];
+    // 每个 Slab 是否在清空时仍有存储块在使用，这样的 Slab 在存储块全部被释放后释放内存。
+    private boolean[] slabRetired = new boolean[0];
+    // 已回收的 Slab 的序号。
+    private final ArrayDeque<Integer> freeSlabs = new ArrayDeque<>();
+    // 每个大小等级正在切分的 Slab 的序号，-1 表示没有。
+    private final int[] currentSlabs;
+    // 每个大小等级正在切分的 Slab 中下一个存储块的偏移量。
+    private final int[] currentOffsets;
+    // 每个大小等级已释放的存储块的地址。
+    private final List<ArrayDeque<Long>> freeLists = new ArrayList<>();
+
+    /**
+     * 创建一个新的 Slab 分配器实例。
+     * @param capacity 可以分配的堆外内存的最大字节数。
+     * @param slabSize 每个 Slab 的字节数。
+     */
+    public SlabAllocator(long capacity, int slabSize) {
+        this.slabSize = Math.max(slabSize, MIN_BLOCK_SIZE);
+        this.maxSlabs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, capacity / this.slabSize));
+
+        int classes = sizeClassOf(this.slabSize) + 1;
+        this.currentSlabs = new int[classes];
+        this.currentOffsets = new int[classes];
+        for (int i = 0; i < classes; i++) {
+            this.currentSlabs[i] = -1;
+            this.freeLists.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * 获取存储给定长度的数据所需的存储块大小。
+     * @param length 数据的字节数。
+     * @return 存储块的字节数，如果超过 Slab 的大小，则返回 -1。
+     */
+    public int blockSize(int length) {
+        int blockSize = MIN_BLOCK_SIZE << sizeClassOf(length);
+        return blockSize <= this.slabSize && blockSize > 0 ? blockSize : -1;
+    }
+
+    /**
+     * 分配一个可以存储给定长度的数据的存储块。
+     * @param length 数据的字节数。
+     * @return 存储块的地址，如果没有可用的堆外内存，则返回 -1。
+     */
+    public synchronized long allocate(int length) {
+        int blockSize = this.blockSize(length);
+        if (blockSize < 0) {
+            return -1;
+        }
+
+        int sizeClass = sizeClassOf(length);
+        Long address = this.freeLists.get(sizeClass).poll();
+        if (address != null) {
+            this.slabUsages[slabOf(address)]++;
+            return address;
+        }
+
+        if (this.currentSlabs[sizeClass] < 0 || this.currentOffsets[sizeClass] + blockSize > this.slabSize) {
+            int slab = this.acquireSlab();
+            if (slab < 0) {
+                return -1;
+            }
+
+            this.slabClasses[slab] = sizeClass;
+            this.currentSlabs[sizeClass] = slab;
+            this.currentOffsets[sizeClass] = 0;
+        }
+
+        int slab = this.currentSlabs[sizeClass];
+        int offset = this.currentOffsets[sizeClass];
+        this.currentOffsets[sizeClass] += blockSize;
+        this.slabUsages[slab]++;
+        return ((long) slab << 32) | offset;
+    }
+
+    /**
+     * 释放一个存储块。
+     * @param address 存储块的地址。
+     */
+    public synchronized void free(long address) {
+        int slab = slabOf(address);
+        if (slab >= this.slabClasses.length || this.slabClasses[slab] < 0) {
+            return;
+        }
+
+        int sizeClass = this.slabClasses[slab];
+        if (this.slabRetired[slab]) {
+            // 清空前分配的存储块不再复用，全部释放后释放 Slab 的内存
+            if (--this.slabUsages[slab] == 0) {
+                this.releaseSlab(slab);
+            }
+            return;
+        }
+        if (--this.slabUsages[slab] > 0 || this.currentSlabs[sizeClass] == slab) {
+            this.freeLists.get(sizeClass).push(address);
+            return;
+        }
+
+        // Slab 中的存储块已全部释放，回收该 Slab
+        this.freeLists.get(sizeClass).removeIf(x -> slabOf(x) == slab);
+        this.slabClasses[slab] = -1;
+        this.freeSlabs.push(slab);
+    }
+
+    /**
+     * 获取存储块的字节数。
+     * @param address 存储块的地址。
+     * @return 存储块的字节数。
+     */
+    public synchronized int blockSizeOf(long address) {
+        return MIN_BLOCK_SIZE << this.slabClasses[slabOf(address)];
+    }
+
+    /**
+     * 将数据写入存储块。
+     * @param address 存储块的地址。
+     * @param value 待写入的数据。
+     */
+    public void write(long address, byte[] value) {
+        ByteBuffer buffer = this.bufferOf(address);
+        buffer.position((int) address);
+        buffer.put(value);
+    }
+
+    /**
+     * 从存储块中读取数据。
+     * @param address 存储块的地址。
+     * @param length 数据的字节数。
+     * @return 读取到的数据。
+     */
+    public byte[] read(long address, int length) {
+        ByteBuffer buffer = this.bufferOf(address);
+        buffer.position((int) address);
+
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return value;
+    }
+
+    /**
+     * 释放所有的 Slab，之后分配的存储块不会与之前分配的存储块重叠。
+     * <p>
+     * 仍有存储块在使用的 Slab 在这些存储块全部通过 {@link #free(long)} 释放后才释放内存，
+     * 在此之前这些存储块仍然可以读写。
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < this.currentSlabs.length; i++) {
+            this.currentSlabs[i] = -1;
+            this.currentOffsets[i] = 0;
+            this.freeLists.get(i).clear();
+        }
+        for (int slab = 0; slab < this.slabClasses.length; slab++) {
+            if (this.slabClasses[slab] >= 0 && this.slabUsages[slab] > 0) {
+                this.slabRetired[slab] = true;
+            } else if (this.slabs[slab] != null) {
+                this.releaseSlab(slab);
+            }
+        }
+    }
+
+    /**
+     * 释放一个 Slab 的内存，该 Slab 的序号在需要时重新分配内存后复用。
+     * @param slab Slab 的序号。
+     */
+    private void releaseSlab(int slab) {
+        ByteBuffer[] slabs = this.slabs.clone();
+        slabs[slab] = null;
+        this.slabs = slabs;
+        this.slabClasses[slab] = -1;
+        this.slabRetired[slab] = false;
+        // 已回收的 Slab 已经在空闲队列中
+        if (!this.freeSlabs.contains(slab)) {
+            this.freeSlabs.push(slab);
+        }
+    }
+
+    /**
+     * 获取一个未分配给任何大小等级的 Slab，优先使用已回收的 Slab。
+     * @return Slab 的序号，如果已达到最大数量，则返回 -1。
+     */
+    private int acquireSlab() {
+        Integer freeSlab = this.freeSlabs.poll();
+        if (freeSlab != null) {
+            if (this.slabs[freeSlab] == null) {
+                ByteBuffer[] slabs = this.slabs.clone();
+                slabs[freeSlab] = ByteBuffer.allocateDirect(this.slabSize);
+                this.slabs = slabs;
+            }
+            return freeSlab;
+        }
+
+        int slabCount = this.slabs.length;
+        if (slabCount >= this.maxSlabs) {
+            return -1;
+        }
+
+        ByteBuffer[] slabs = Arrays.copyOf(this.slabs, slabCount + 1);
+        slabs[slabCount] = ByteBuffer.allocateDirect(this.slabSize);
+        this.slabClasses = Arrays.copyOf(this.slabClasses, slabCount + 1);
+        this.slabUsages = Arrays.copyOf(this.slabUsages, slabCount + 1);
+        this.slabRetired = Arrays.copyOf(this.slabRetired, slabCount + 1);
+        this.slabs = slabs;
+        return slabCount;
+    }
+
+    /**
+     * 获取存储块所在的 Slab 的一个独立的视图，以便并发地读写。
+     * @param address 存储块的地址。
+     * @return Slab 的视图。
+     */
+    private ByteBuffer bufferOf(long address) {
+        return this.slabs[slabOf(address)].duplicate();
+    }
+
+    /**
+     * 获取存储块所在的 Slab 的序号。
+     * @param address 存储块的地址。
+     * @return Slab 的序号。
+     */
+    private static int slabOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    /**
+     * 获取给定长度的数据所属的大小等级。
+     * @param length 数据的字节数。
+     * @return 大小等级。
+     */
+    private static int sizeClassOf(int length) {
+        if (length <= MIN_BLOCK_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_BLOCK_SHIFT;
+    }
+}
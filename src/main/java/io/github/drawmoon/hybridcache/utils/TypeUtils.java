@@ -18,8 +18,7 @@
  */
 package io.github.drawmoon.hybridcache.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import de.undercouch.bson4jackson.BsonFactory;
+import io.github.drawmoon.hybridcache.JacksonSerializer;
 import java.io.IOException;
 
 public class TypeUtils {
@@ -30,12 +29,7 @@ public class TypeUtils {
      * @throws IOException 可能会引发 {@link IOException} 异常。
      */
     public static byte[] toBytes(Object value) throws IOException {
-        if (value instanceof byte[]) {
-            return (byte[]) value;
-        }
-
-        ObjectMapper mapper = new ObjectMapper(new BsonFactory());
-        return mapper.writeValueAsBytes(value);
+        return JacksonSerializer.bson().serialize(value);
     }
 
     /**
@@ -48,11 +42,6 @@ public class TypeUtils {
      * @throws ClassNotFoundException 可能会引发 {@link ClassNotFoundException} 异常。
      */
     public static <T> T fromBytes(byte[] bytes, Class<T> clazz) throws ClassNotFoundException, IOException {
-        if (clazz.isAssignableFrom(byte[].class)) {
-            return clazz.cast(bytes);
-        }
-
-        ObjectMapper mapper = new ObjectMapper(new BsonFactory());
-        return mapper.readValue(bytes, clazz);
+        return JacksonSerializer.bson().deserialize(bytes, clazz);
     }
 }
@@ -0,0 +1,442 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 drsh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.drawmoon.hybridcache.utils;
+
+import io.github.drawmoon.hybridcache.CacheItemPriority;
+import io.github.drawmoon.hybridcache.CompressionCodec;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 用于在写入 Redis 或磁盘、分布式对象存储之前包装值的工具类。
+ * <p>
+ * 包装后的值以 8 个字节的头部开始：2 个字节的魔数、1 个字节的标志、1 个字节的压缩方式和 4 个字节的原始长度。
+ * 如果设置了 {@link #FLAG_EXPIRATION} 标志，头部之后是 24 个字节的过期信息：绝对过期时间、滑动过期时间和当前的过期时间，
+ * 均以毫秒表示，0 表示没有设置。标志的第 1、2 位记录值的优先级，0 表示 {@link CacheItemPriority#NORMAL}。
+ * 如果设置了 {@link #FLAG_POINTER} 标志，值本身存储在磁盘或分布式对象存储中，包装后的值只是指向存储的指针，没有内容。
+ * <p>
+ * 既不需要压缩也不需要过期信息、优先级为 {@link CacheItemPriority#NORMAL} 的值原样存储，但以魔数开始的值总是被包装，
+ * 因此原样存储的值不会被误认为包装后的值。读取时无法识别为包装后的值的数据原样返回，因此旧的数据仍然可以读取。
+ */
+public final class ValueEnvelope {
+    // 包装后的值的魔数，0xC7 后不能跟随 0x48，因此不会与 UTF-8 字符串混淆，以魔数开始的其他值在写入时被包装。
+    private static final byte MAGIC_0 = (byte) 0xC7;
+    private static final byte MAGIC_1 = (byte) 0x48;
+
+    // 标志：头部之后是过期信息。
+    private static final int FLAG_EXPIRATION = 0x01;
+    // 标志：值的优先级在 {@link #PRIORITIES} 中的下标。
+    private static final int FLAG_PRIORITY = 0x06;
+    // 优先级在标志中的偏移。
+    private static final int PRIORITY_SHIFT = 1;
+    // 标志：值存储在磁盘或分布式对象存储中，包装后的值只是指针。
+    private static final int FLAG_POINTER = 0x08;
+    // 按在标志中的取值排列的优先级。
+    private static final CacheItemPriority[] PRIORITIES = {
+        CacheItemPriority.NORMAL, CacheItemPriority.LOW, CacheItemPriority.HIGH, CacheItemPriority.NEVER_REMOVE
+    };
+
+    /**
+     * 头部的长度。
+     */
+    public static final int HEADER_LENGTH = 8;
+    // 过期信息的长度。
+    private static final int EXPIRATION_LENGTH = 24;
+
+    // 原始的值。
+    private final byte[] value;
+    // 绝对过期时间，以 Unix 纪元以来的毫秒数表示，0 表示没有设置。
+    private final long absoluteExpiration;
+    // 滑动过期时间，以毫秒为单位，0 表示没有设置。
+    private final long slidingExpiration;
+    // 当前的过期时间，以 Unix 纪元以来的毫秒数表示，0 表示永不过期。
+    private final long expiresAt;
+    // 值的优先级。
+    private final CacheItemPriority priority;
+    // 是否为指向磁盘或分布式对象存储的指针。
+    private final boolean pointer;
+
+    private ValueEnvelope(
+            byte[] value,
+            long absoluteExpiration,
+            long slidingExpiration,
+            long expiresAt,
+            CacheItemPriority priority,
+            boolean pointer) {
+        this.value = value;
+        this.absoluteExpiration = absoluteExpiration;
+        this.slidingExpiration = slidingExpiration;
+        this.expiresAt = expiresAt;
+        this.priority = priority;
+        this.pointer = pointer;
+    }
+
+    /**
+     * 获取原始的值。
+     * @return 原始的值。
+     */
+    public byte[] getValue() {
+        return this.value;
+    }
+
+    /**
+     * 获取绝对过期时间。
+     * @return 以 Unix 纪元以来的毫秒数表示的绝对过期时间，0 表示没有设置。
+     */
+    public long getAbsoluteExpiration() {
+        return this.absoluteExpiration;
+    }
+
+    /**
+     * 获取滑动过期时间。
+     * @return 以毫秒为单位的滑动过期时间，0 表示没有设置。
+     */
+    public long getSlidingExpiration() {
+        return this.slidingExpiration;
+    }
+
+    /**
+     * 获取当前的过期时间。
+     * @return 以 Unix 纪元以来的毫秒数表示的过期时间，0 表示永不过期。
+     */
+    public long getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    /**
+     * 获取值的优先级。
+     * @return 值的优先级，没有记录时为 {@link CacheItemPriority#NORMAL}。
+     */
+    public CacheItemPriority getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * 判断是否为指向磁盘或分布式对象存储的指针，指针没有内容，值需要从存储中读取。
+     * @return 如果是指针，则返回 {@code true}。
+     */
+    public boolean isPointer() {
+        return this.pointer;
+    }
+
+    /**
+     * 判断值在给定的时间是否已经过期。
+     * @param now 以 Unix 纪元以来的毫秒数表示的当前时间。
+     * @return 如果值已经过期，则返回 {@code true}。
+     */
+    public boolean isExpired(long now) {
+        return this.expiresAt > 0 && this.expiresAt <= now;
+    }
+
+    /**
+     * 计算值在给定的时间被访问后新的过期时间，不超过绝对过期时间。
+     * @param now 以 Unix 纪元以来的毫秒数表示的当前时间。
+     * @return 以 Unix 纪元以来的毫秒数表示的过期时间，没有设置滑动过期时间时返回当前的过期时间。
+     */
+    public long slide(long now) {
+        if (this.slidingExpiration <= 0) {
+            return this.expiresAt;
+        }
+
+        long expiresAt = now + this.slidingExpiration;
+        return this.absoluteExpiration > 0 ? Math.min(expiresAt, this.absoluteExpiration) : expiresAt;
+    }
+
+    /**
+     * 包装一个值，如果值的长度达到阈值并且压缩后更小，则压缩该值。
+     * @param value 待包装的值。
+     * @param codec 压缩方式。
+     * @param level 压缩级别。
+     * @param threshold 需要压缩的值的最小长度。
+     * @return 包装后的值，不需要压缩时返回原值。
+     */
+    public static byte[] encode(byte[] value, CompressionCodec codec, int level, int threshold) {
+        return encode(value, codec, level, threshold, 0, 0, 0);
+    }
+
+    /**
+     * 包装一个值并附带过期信息，如果值的长度达到阈值并且压缩后更小，则压缩该值。
+     * @param value 待包装的值。
+     * @param codec 压缩方式。
+     * @param level 压缩级别。
+     * @param threshold 需要压缩的值的最小长度。
+     * @param absoluteExpiration 以 Unix 纪元以来的毫秒数表示的绝对过期时间，0 表示没有设置。
+     * @param slidingExpiration 以毫秒为单位的滑动过期时间，0 表示没有设置。
+     * @param expiresAt 以 Unix 纪元以来的毫秒数表示的当前的过期时间，0 表示永不过期。
+     * @return 包装后的值，既不需要压缩也没有过期信息时返回原值。
+     */
+    public static byte[] encode(
+            byte[] value,
+            CompressionCodec codec,
+            int level,
+            int threshold,
+            long absoluteExpiration,
+            long slidingExpiration,
+            long expiresAt) {
+        return encode(
+                value,
+                codec,
+                level,
+                threshold,
+                absoluteExpiration,
+                slidingExpiration,
+                expiresAt,
+                CacheItemPriority.NORMAL);
+    }
+
+    /**
+     * 包装一个值并附带过期信息和优先级，如果值的长度达到阈值并且压缩后更小，则压缩该值。
+     * @param value 待包装的值。
+     * @param codec 压缩方式。
+     * @param level 压缩级别。
+     * @param threshold 需要压缩的值的最小长度。
+     * @param absoluteExpiration 以 Unix 纪元以来的毫秒数表示的绝对过期时间，0 表示没有设置。
+     * @param slidingExpiration 以毫秒为单位的滑动过期时间，0 表示没有设置。
+     * @param expiresAt 以 Unix 纪元以来的毫秒数表示的当前的过期时间，0 表示永不过期。
+     * @param priority 值的优先级。
+     * @return 包装后的值，既不需要压缩也没有过期信息、优先级为 {@link CacheItemPriority#NORMAL} 并且不以魔数开始时返回原值。
+     */
+    public static byte[] encode(
+            byte[] value,
+            CompressionCodec codec,
+            int level,
+            int threshold,
+            long absoluteExpiration,
+            long slidingExpiration,
+            long expiresAt,
+            CacheItemPriority priority) {
+        if (value == null) {
+            return null;
+        }
+
+        boolean expiration = absoluteExpiration > 0 || slidingExpiration > 0 || expiresAt > 0;
+        int priorityFlag = priorityFlag(priority);
+        byte[] payload = value;
+        CompressionCodec payloadCodec = CompressionCodec.NONE;
+        if (codec != CompressionCodec.NONE && value.length >= threshold) {
+            byte[] compressed = deflate(value, level);
+            if (compressed.length + HEADER_LENGTH < value.length) {
+                payload = compressed;
+                payloadCodec = codec;
+            }
+        }
+
+        if (!expiration && payloadCodec == CompressionCodec.NONE && priorityFlag == 0 && !startsWithMagic(value)) {
+            return value;
+        }
+
+        int offset = expiration ? HEADER_LENGTH + EXPIRATION_LENGTH : HEADER_LENGTH;
+        byte[] bytes = new byte[offset + payload.length];
+        bytes[0] = MAGIC_0;
+        bytes[1] = MAGIC_1;
+        bytes[2] = (byte) ((expiration ? FLAG_EXPIRATION : 0) | priorityFlag);
+        bytes[3] = (byte) payloadCodec.ordinal();
+        writeInt(bytes, 4, value.length);
+        if (expiration) {
+            writeExpiration(bytes, absoluteExpiration, slidingExpiration, expiresAt);
+        }
+        System.arraycopy(payload, 0, bytes, offset, payload.length);
+        return bytes;
+    }
+
+    /**
+     * 创建一个指向磁盘或分布式对象存储的指针，值本身已经写入存储。
+     * @param absoluteExpiration 以 Unix 纪元以来的毫秒数表示的绝对过期时间，0 表示没有设置。
+     * @param slidingExpiration 以毫秒为单位的滑动过期时间，0 表示没有设置。
+     * @param expiresAt 以 Unix 纪元以来的毫秒数表示的当前的过期时间，0 表示永不过期。
+     * @param priority 值的优先级。
+     * @return 包装后的指针。
+     */
+    public static byte[] pointer(
+            long absoluteExpiration, long slidingExpiration, long expiresAt, CacheItemPriority priority) {
+        boolean expiration = absoluteExpiration > 0 || slidingExpiration > 0 || expiresAt > 0;
+        byte[] bytes = new byte[expiration ? HEADER_LENGTH + EXPIRATION_LENGTH : HEADER_LENGTH];
+        bytes[0] = MAGIC_0;
+        bytes[1] = MAGIC_1;
+        bytes[2] = (byte) (FLAG_POINTER | (expiration ? FLAG_EXPIRATION : 0) | priorityFlag(priority));
+        bytes[3] = (byte) CompressionCodec.NONE.ordinal();
+        if (expiration) {
+            writeExpiration(bytes, absoluteExpiration, slidingExpiration, expiresAt);
+        }
+        return bytes;
+    }
+
+    /**
+     * 解开一个包装后的值，如果值经过压缩，则解压该值。
+     * @param bytes 从 Redis 或磁盘、分布式对象存储中读取的值。
+     * @return 原始的值，不是包装后的值时返回原值。
+     */
+    public static byte[] decode(byte[] bytes) {
+        ValueEnvelope envelope = unwrap(bytes);
+        return envelope != null ? envelope.value : null;
+    }
+
+    /**
+     * 解开一个包装后的值及其过期信息，如果值经过压缩，则解压该值。
+     * @param bytes 从 Redis 或磁盘、分布式对象存储中读取的值。
+     * @return 解开后的值，不是包装后的值时包含原值且没有过期信息，{@code bytes} 为 {@code null} 时返回 {@code null}。
+     */
+    public static ValueEnvelope unwrap(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+
+        ValueEnvelope raw = new ValueEnvelope(bytes, 0, 0, 0, CacheItemPriority.NORMAL, false);
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+            return raw;
+        }
+
+        int flags = bytes[2] & 0xFF;
+        int codec = bytes[3] & 0xFF;
+        int length = readInt(bytes, 4);
+        int offset = (flags & FLAG_EXPIRATION) != 0 ? HEADER_LENGTH + EXPIRATION_LENGTH : HEADER_LENGTH;
+        if ((flags & ~(FLAG_EXPIRATION | FLAG_PRIORITY | FLAG_POINTER)) != 0 || length < 0 || bytes.length < offset) {
+            return raw;
+        }
+
+        byte[] value;
+        if (codec == CompressionCodec.DEFLATE.ordinal()) {
+            value = inflate(bytes, offset, length);
+        } else if (codec == CompressionCodec.NONE.ordinal() && bytes.length - offset == length) {
+            value = new byte[length];
+            System.arraycopy(bytes, offset, value, 0, length);
+        } else {
+            value = null;
+        }
+        if (value == null) {
+            return raw;
+        }
+
+        CacheItemPriority priority = PRIORITIES[(flags & FLAG_PRIORITY) >>> PRIORITY_SHIFT];
+        boolean pointer = (flags & FLAG_POINTER) != 0;
+        if (offset == HEADER_LENGTH) {
+            return new ValueEnvelope(value, 0, 0, 0, priority, pointer);
+        }
+        return new ValueEnvelope(
+                value,
+                readLong(bytes, HEADER_LENGTH),
+                readLong(bytes, HEADER_LENGTH + 8),
+                readLong(bytes, HEADER_LENGTH + 16),
+                priority,
+                pointer);
+    }
+
+    /**
+     * 只解开包装后的值的头部，用于在不读取整个值的情况下获取值的优先级和是否为指针。
+     * @param header 包装后的值的开头，至少包含 {@link #HEADER_LENGTH} 个字节。
+     * @return 只包含优先级和指针标志、没有内容和过期信息的值，不是包装后的值时返回 {@code null}。
+     */
+    public static ValueEnvelope peek(byte[] header) {
+        if (header == null || header.length < HEADER_LENGTH || !startsWithMagic(header)) {
+            return null;
+        }
+
+        int flags = header[2] & 0xFF;
+        if ((flags & ~(FLAG_EXPIRATION | FLAG_PRIORITY | FLAG_POINTER)) != 0) {
+            return null;
+        }
+        CacheItemPriority priority = PRIORITIES[(flags & FLAG_PRIORITY) >>> PRIORITY_SHIFT];
+        return new ValueEnvelope(null, 0, 0, 0, priority, (flags & FLAG_POINTER) != 0);
+    }
+
+    private static boolean startsWithMagic(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    private static int priorityFlag(CacheItemPriority priority) {
+        return Arrays.asList(PRIORITIES).indexOf(priority) << PRIORITY_SHIFT;
+    }
+
+    private static void writeExpiration(byte[] bytes, long absoluteExpiration, long slidingExpiration, long expiresAt) {
+        writeLong(bytes, HEADER_LENGTH, absoluteExpiration);
+        writeLong(bytes, HEADER_LENGTH + 8, slidingExpiration);
+        writeLong(bytes, HEADER_LENGTH + 16, expiresAt);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >>> (24 - i * 8));
+        }
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - i * 8));
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static byte[] deflate(byte[] value, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(value);
+            deflater.finish();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(value.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+
+            byte[] value = new byte[length];
+            int position = 0;
+            while (position < length && !inflater.finished()) {
+                int count = inflater.inflate(value, position, length - position);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return null;
+                }
+                position += count;
+            }
+            return position == length && inflater.finished() ? value : null;
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -20,6 +20,25 @@ package io.github.drawmoon.hybridcache;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.github.drawmoon.hybridcache.utils.SlabAllocator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 
 public class HybridCacheTest {
@@ -58,4 +77,822 @@ public class HybridCacheTest {
             assertArrayEquals(bytes, hybridCache.get("key", byte[].class));
         }
     }
+
+    @Test
+    public void testCacheBytesMagicRedis() {
+        try (HybridCache hybridCache =
+                new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            // 以包装后的值的魔数开始的值不会被误认为包装后的值
+            String key = "magic:" + System.nanoTime();
+            byte[] magic = new byte[] {(byte) 0xC7, 0x48, 0, 0, 0, 0, 0, 1, 42};
+            hybridCache.set(key, magic);
+            assertArrayEquals(magic, hybridCache.get(key, byte[].class));
+        }
+    }
+
+    @Test
+    public void testCacheStringAsync() {
+        try (HybridCache hybridCache = new HybridCache()) {
+            hybridCache.setAsync("key", "value").join();
+            assertEquals("value", hybridCache.getAsync("key", String.class).join());
+        }
+    }
+
+    @Test
+    public void testRedisCacheStringAsync() {
+        try (HybridCache hybridCache =
+                new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            hybridCache.setAsync("key", "value").join();
+            assertEquals("value", hybridCache.getAsync("key", String.class).join());
+        }
+    }
+
+    @Test
+    public void testCacheStore() {
+        String key = "store:" + System.nanoTime();
+        try (HybridCache node1 = new HybridCache();
+                HybridCache node2 = new HybridCache()) {
+            // 没有 Redis 时，值写入磁盘，其他实例可以从磁盘中读取
+            node1.set(key, "value");
+            assertEquals("value", node2.get(key, String.class));
+
+            node1.remove(key);
+            assertNull(node1.getAsync(key, String.class).join());
+        }
+    }
+
+    @Test
+    public void testCacheAll() {
+        String prefix = "all:" + System.nanoTime() + ":";
+        try (HybridCache hybridCache = new HybridCache()) {
+            Map<String, String> values = new HashMap<>();
+            values.put(prefix + "key1", "value1");
+            values.put(prefix + "key2", "value2");
+            hybridCache.setAll(values, new HybridCacheEntryOptions());
+
+            Map<String, String> result = hybridCache.getAll(values.keySet(), String.class);
+            assertEquals(values, result);
+
+            hybridCache.removeAll(values.keySet());
+        }
+    }
+
+    @Test
+    public void testRedisCacheAll() {
+        try (HybridCache hybridCache =
+                new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            Map<String, String> values = new HashMap<>();
+            values.put("key1", "value1");
+            values.put("key2", "value2");
+            hybridCache.setAll(values);
+
+            Map<String, String> result = hybridCache.getAll(Arrays.asList("key1", "key2", "key3"), String.class);
+            assertEquals(values, result);
+
+            hybridCache.removeAll(Arrays.asList("key1", "key2"));
+            assertTrue(hybridCache.getAll(Arrays.asList("key1", "key2")).isEmpty());
+        }
+    }
+
+    @Test
+    public void testCacheLoader() {
+        String key = "loader:" + System.nanoTime();
+        try (HybridCache hybridCache = new HybridCache()) {
+            AtomicInteger loads = new AtomicInteger();
+            Function<String, String> loader = k -> {
+                loads.incrementAndGet();
+                sleep(100);
+                return "value";
+            };
+
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(hybridCache.getAsync(key, String.class, loader, new HybridCacheEntryOptions()));
+            }
+
+            for (CompletableFuture<String> future : futures) {
+                assertEquals("value", future.join());
+            }
+            assertEquals(1, loads.get());
+            assertEquals("value", hybridCache.get(key, String.class, loader));
+            assertEquals(1, loads.get());
+
+            hybridCache.remove(key);
+        }
+    }
+
+    @Test
+    public void testRedisCacheLoaderWithLock() {
+        String key = "loader:" + System.nanoTime();
+        try (HybridCache node1 = new HybridCache(option -> {
+                    option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                    option.getRedisCacheOptions().setDistributedLock(true);
+                });
+                HybridCache node2 = new HybridCache(option -> {
+                    option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                    option.getRedisCacheOptions().setDistributedLock(true);
+                })) {
+            AtomicInteger loads = new AtomicInteger();
+            Function<String, String> loader = k -> {
+                loads.incrementAndGet();
+                sleep(200);
+                return "value";
+            };
+
+            CompletableFuture<String> future1 =
+                    node1.getAsync(key, String.class, loader, new HybridCacheEntryOptions());
+            CompletableFuture<String> future2 =
+                    node2.getAsync(key, String.class, loader, new HybridCacheEntryOptions());
+
+            assertEquals("value", future1.join());
+            assertEquals("value", future2.join());
+            assertEquals(1, loads.get());
+        }
+    }
+
+    @Test
+    public void testRedisCacheRefreshAhead() {
+        String key = "refresh:" + System.nanoTime();
+        try (HybridCache hybridCache =
+                new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            AtomicInteger loads = new AtomicInteger();
+            Function<String, String> loader = k -> "value" + loads.incrementAndGet();
+            HybridCacheEntryOptions entryOptions = new HybridCacheEntryOptions();
+            entryOptions.setAbsoluteExpiration(1);
+            entryOptions.setRefreshAheadRatio(0.5);
+
+            assertEquals("value1", hybridCache.get(key, String.class, loader, entryOptions));
+            assertEquals("value1", hybridCache.get(key, String.class, loader, entryOptions));
+            assertEquals(1, loads.get());
+
+            // 超过过期时间的一半后，返回旧值并在后台重新加载
+            sleep(700);
+            assertEquals("value1", hybridCache.get(key, String.class, loader, entryOptions));
+            sleep(200);
+            assertEquals(2, loads.get());
+            assertEquals("value2", hybridCache.get(key, String.class, loader, entryOptions));
+
+            hybridCache.remove(key);
+        }
+    }
+
+    @Test
+    public void testRedisCachePromotion() {
+        String key = "promotion:" + System.nanoTime();
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        Consumer<HybridCacheOptions> optionsAction = option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+            option.getRedisCacheOptions().setInvalidationMode(InvalidationMode.PUBSUB);
+        };
+        try (HybridCache hybridCache = new HybridCache(optionsAction.andThen(option -> {
+                    option.setPromotionPolicy(PromotionPolicy.always());
+                    option.setMetricsRecorder(metrics);
+                }));
+                HybridCache other = new HybridCache(optionsAction)) {
+            other.set(key, "value");
+            assertEquals("value", hybridCache.get(key, String.class));
+
+            // 值提升到内存缓存中，之后的读取命中内存缓存
+            waitUntil(() ->
+                    "value".equals(hybridCache.get(key, String.class)) && metrics.getHits(HybridCacheTier.MEMORY) > 0);
+
+            // 其他节点移除值后，内存缓存中的值失效
+            other.remove(key);
+            waitUntil(() -> hybridCache.get(key, String.class) == null);
+        }
+    }
+
+    @Test
+    public void testRedisCachePromotionAfterHits() {
+        String key = "promotion:" + System.nanoTime();
+        try (HybridCache hybridCache = new HybridCache(option -> {
+                    option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                    option.setPromotionPolicy(PromotionPolicy.afterHits(2));
+                });
+                HybridCache other =
+                        new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            hybridCache.set(key, "value");
+            assertEquals("value", hybridCache.get(key, String.class));
+            sleep(100);
+
+            // 只命中了一次，值仍未提升到内存缓存中
+            other.set(key, "value2");
+            assertEquals("value2", hybridCache.get(key, String.class));
+            sleep(100);
+
+            other.remove(key);
+            assertEquals("value2", hybridCache.get(key, String.class));
+        }
+    }
+
+    @Test
+    public void testRedisCacheLargeEntry() {
+        String key = "large:" + System.nanoTime();
+        try (HybridCache hybridCache = new HybridCache(option -> {
+                    option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                    option.setMaxMemoryBytes(1024 * 1024);
+                    option.setMaxEntryBytes(4);
+                    option.setPromotionPolicy(PromotionPolicy.never());
+                });
+                HybridCache other =
+                        new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            // 超过单个缓存项的最大字节数，存储在 Redis 中而不是内存中
+            hybridCache.set(key, "large value", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            assertEquals("large value", other.get(key, String.class));
+
+            hybridCache.set(key, "abc", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            assertEquals("abc", hybridCache.get(key, String.class));
+            assertEquals("large value", other.get(key, String.class));
+        }
+    }
+
+    @Test
+    public void testOffHeapCache() {
+        try (HybridCache hybridCache = new HybridCache(option -> {
+            option.setMemoryCacheMode(MemoryCacheMode.OFF_HEAP);
+            option.setMaxMemoryBytes(64 * 1024);
+            option.setOffHeapSlabBytes(16 * 1024);
+        })) {
+            String prefix = "offheap:" + System.nanoTime() + ":";
+            String padding = StringUtils.repeat('x', 200);
+            for (int i = 0; i < 1000; i++) {
+                hybridCache.set(prefix + i, padding + i, options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            }
+
+            // 超出容量的缓存项被淘汰，命中的缓存项的值仍然正确
+            int hits = 0;
+            for (int i = 0; i < 1000; i++) {
+                String value = hybridCache.get(prefix + i, String.class);
+                if (value != null && !value.isEmpty()) {
+                    assertEquals(padding + i, value);
+                    hits++;
+                }
+            }
+            // 每个值占用一个 256 字节的存储块
+            assertTrue(hits > 0 && hits <= 256);
+
+            hybridCache.set("key", "value", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            hybridCache.set("key", "updated", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            assertEquals("updated", hybridCache.get("key", String.class));
+        }
+    }
+
+    @Test
+    public void testSlabAllocatorClear() {
+        SlabAllocator allocator = new SlabAllocator(2 * 1024, 1024);
+        byte[] value = StringUtils.repeat('a', 100).getBytes();
+        long address = allocator.allocate(value.length);
+        allocator.write(address, value);
+
+        // 清空后仍在使用的存储块不会被复用，读取的值仍然正确
+        allocator.clear();
+        for (int i = 0; i < 20; i++) {
+            long other = allocator.allocate(value.length);
+            if (other >= 0) {
+                allocator.write(other, StringUtils.repeat('b', 100).getBytes());
+            }
+        }
+        assertArrayEquals(value, allocator.read(address, value.length));
+
+        // 存储块释放后 Slab 被回收，可以重新分配
+        allocator.free(address);
+        assertTrue(allocator.allocate(value.length) >= 0);
+    }
+
+    @Test
+    public void testRedisCacheSerializer() {
+        try (HybridCache hybridCache = new HybridCache(option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+            option.setSerializer(new PrimitiveSerializer());
+        })) {
+            String key = "serializer:" + System.nanoTime();
+            hybridCache.set(key, 42L);
+            assertEquals(42L, hybridCache.get(key, Long.class));
+            assertEquals(8, hybridCache.get(key).length);
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("name", "value");
+            hybridCache.set(key, map);
+            assertEquals(map, hybridCache.get(key, HashMap.class));
+
+            hybridCache.remove(key);
+        }
+    }
+
+    @Test
+    public void testRedisCacheCompression() {
+        String key = "compression:" + System.nanoTime();
+        String value = StringUtils.repeat("value", 1000);
+        try (HybridCache plain =
+                        new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"));
+                HybridCache compressed = new HybridCache(option -> {
+                    option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                    option.setCompressionCodec(CompressionCodec.DEFLATE);
+                    option.setPromotionPolicy(PromotionPolicy.never());
+                })) {
+            // 未压缩的旧数据仍然可以读取
+            plain.set(key, value);
+            assertEquals(value, compressed.get(key, String.class));
+
+            compressed.set(key, value);
+            assertEquals(value, compressed.get(key, String.class));
+
+            // 低于阈值的值不压缩
+            compressed.set(key, "value");
+            assertEquals("value", plain.get(key, String.class));
+
+            compressed.remove(key);
+        }
+    }
+
+    @Test
+    public void testRedisCacheInvalidation() {
+        for (InvalidationMode mode : Arrays.asList(InvalidationMode.PUBSUB, InvalidationMode.TRACKING)) {
+            Consumer<HybridCacheOptions> optionsAction = option -> {
+                option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                option.getRedisCacheOptions().setInvalidationMode(mode);
+                option.setPromotionPolicy(PromotionPolicy.always());
+            };
+            try (HybridCache node1 = new HybridCache(optionsAction);
+                    HybridCache node2 = new HybridCache(optionsAction)) {
+                String key = "invalidation:" + System.nanoTime();
+                node1.set(key, "value");
+                assertEquals("value", node2.get(key, String.class));
+                // 等待提升到第二个节点的内存缓存中
+                sleep(100);
+
+                node1.set(key, "updated");
+                sleep(200);
+                assertEquals("updated", node2.get(key, String.class));
+
+                sleep(100);
+                node1.remove(key);
+                sleep(200);
+                assertNull(node2.get(key, String.class));
+
+                // 第二个节点写入并保留在内存缓存中的值被第一个节点覆盖
+                node2.set(key, "pinned", options -> options.setPriority(CacheItemPriority.NEVER_REMOVE));
+                node1.set(key, "overwritten");
+                sleep(200);
+                assertEquals("overwritten", node2.get(key, String.class));
+                node1.remove(key);
+            }
+        }
+    }
+
+    @Test
+    public void testRedisCacheTrackingCluster() {
+        // 集群中不支持跟踪模式，创建时即引发异常，而不是静默地不使内存缓存中的值失效
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new HybridCache(option -> {
+                    option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                    option.getRedisCacheOptions().setTopology(RedisTopology.CLUSTER);
+                    option.getRedisCacheOptions().setInvalidationMode(InvalidationMode.TRACKING);
+                }));
+    }
+
+    @Test
+    public void testRedisCacheDiskCache() throws IOException {
+        String key = "disk:" + System.nanoTime();
+        Path directory = Files.createTempDirectory("hybridcache");
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        Consumer<HybridCacheOptions> optionsAction = option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+            option.getDiskCacheOptions().setDirectory(directory.toString());
+            option.setPromotionPolicy(PromotionPolicy.always());
+        };
+
+        // 上次异常退出后留下的文件在启动时被删除
+        Path stale = directory.resolve("stale").resolve("00").resolve("00").resolve("stale.entry");
+        Files.createDirectories(stale.getParent());
+        Files.write(stale, new byte[] {1});
+
+        try (HybridCache hybridCache = new HybridCache(optionsAction.andThen(option -> {
+                    option.setMetricsRecorder(metrics);
+                    option.setSizeLimit(1);
+                }));
+                HybridCache other =
+                        new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            waitUntil(() -> !Files.exists(stale.getParent()));
+
+            other.set(key, "value");
+            assertEquals("value", hybridCache.get(key, String.class));
+            // 等待提升到磁盘缓存中，内存缓存中的值被其他值挤出后从磁盘缓存中读取
+            waitUntil(() -> countEntryFiles(directory) == 1);
+            waitUntil(() -> {
+                hybridCache.set(key + ":other", "other", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+                return "value".equals(hybridCache.get(key, String.class)) && metrics.getHits(HybridCacheTier.DISK) > 0;
+            });
+            other.remove(key);
+        }
+
+        // 磁盘缓存不在重新启动之间保留，关闭时删除本次运行的文件
+        assertEquals(0, countEntryFiles(directory));
+        try (HybridCache hybridCache = new HybridCache(optionsAction)) {
+            assertNull(hybridCache.get(key, String.class));
+        }
+    }
+
+    @Test
+    public void testCacheSnapshot() throws IOException {
+        String key = "snapshot:" + System.nanoTime();
+        Path snapshotPath = Files.createTempDirectory("hybridcache").resolve("memory.snapshot");
+        Consumer<HybridCacheOptions> optionsAction = option -> option.setSnapshotPath(snapshotPath.toString());
+
+        try (HybridCache hybridCache = new HybridCache(optionsAction)) {
+            hybridCache.set(key, "value", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            hybridCache.set(key + ":high", "high", options -> options.setPriority(CacheItemPriority.HIGH));
+        }
+        assertTrue(Files.exists(snapshotPath));
+
+        // 重新启动后从快照中加载内存缓存，并删除快照文件
+        try (HybridCache hybridCache = new HybridCache(optionsAction.andThen(option -> option.setSizeLimit(100)))) {
+            assertFalse(Files.exists(snapshotPath));
+            assertEquals("value", hybridCache.get(key, String.class));
+
+            // 加载的缓存项保留了优先级，没有被大量写入的普通缓存项挤出内存缓存
+            for (int i = 0; i < 1000; i++) {
+                hybridCache.set(key + ":" + i, "value" + i, options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            }
+            assertEquals("high", hybridCache.get(key + ":high", String.class));
+            hybridCache.remove(key);
+        }
+    }
+
+    @Test
+    public void testRedisCacheSnapshot() throws IOException {
+        String key = "snapshot:" + System.nanoTime();
+        Path snapshotPath = Files.createTempDirectory("hybridcache").resolve("memory.snapshot");
+        try (HybridCache hybridCache = new HybridCache(option -> option.setSnapshotPath(snapshotPath.toString()))) {
+            hybridCache.set(key, "value", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+        }
+        assertTrue(Files.exists(snapshotPath));
+
+        // 使用 Redis 时停止期间其他节点的修改无法得知，快照被丢弃，关闭时也不再保存
+        try (HybridCache hybridCache = new HybridCache(option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+            option.setSnapshotPath(snapshotPath.toString());
+        })) {
+            assertFalse(Files.exists(snapshotPath));
+            assertNull(hybridCache.get(key, String.class));
+            hybridCache.set(key, "value", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+        }
+        assertFalse(Files.exists(snapshotPath));
+    }
+
+    @Test
+    public void testCacheSlidingExpiration() {
+        String key = "sliding:" + System.nanoTime();
+        try (HybridCache hybridCache = new HybridCache()) {
+            hybridCache.set(key, "value", options -> options.setSlidingExpiration(1));
+
+            // 每次访问都会延长过期时间
+            for (int i = 0; i < 3; i++) {
+                sleep(600);
+                assertEquals("value", hybridCache.get(key, String.class));
+            }
+
+            sleep(1200);
+            assertNull(hybridCache.get(key, String.class));
+        }
+    }
+
+    @Test
+    public void testRedisCacheSlidingExpiration() {
+        String key = "sliding:" + System.nanoTime();
+        try (HybridCache hybridCache =
+                        new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"));
+                HybridCache other =
+                        new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            hybridCache.set(key, "value", options -> {
+                options.setSlidingExpiration(1);
+                options.setAbsoluteExpiration(3);
+            });
+
+            // 刷新后 Redis 中的过期时间被延长，其他节点仍然命中
+            sleep(600);
+            hybridCache.refresh(key);
+            sleep(600);
+            assertEquals("value", other.get(key, String.class));
+
+            sleep(1200);
+            assertNull(other.get(key, String.class));
+            assertNull(hybridCache.get(key, String.class));
+        }
+    }
+
+    @Test
+    public void testRedisCacheMetrics() {
+        String key = "metrics:" + System.nanoTime();
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        try (HybridCache hybridCache = new HybridCache(option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+            option.setMetricsRecorder(metrics);
+        })) {
+            // 不提升 Redis 中命中的值，内存缓存的命中来自只写入内存缓存的值，计数不依赖异步的提升
+            hybridCache.set(key, "value");
+            hybridCache.set(key + ":local", "local", options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            assertEquals("value", hybridCache.get(key, String.class));
+            assertEquals("local", hybridCache.get(key + ":local", String.class));
+            assertNull(hybridCache.get(key + ":missing", String.class));
+
+            assertEquals(1, metrics.getHits(HybridCacheTier.MEMORY));
+            assertEquals(2, metrics.getMisses(HybridCacheTier.MEMORY));
+            assertEquals(1, metrics.getHits(HybridCacheTier.REDIS));
+            assertEquals(1, metrics.getMisses(HybridCacheTier.REDIS));
+            assertEquals(5, metrics.getBytesRead(HybridCacheTier.MEMORY));
+            assertEquals(5, metrics.getBytesWritten(HybridCacheTier.REDIS));
+            assertEquals(1, metrics.getSetLatency(HybridCacheTier.REDIS).getCount());
+            assertEquals(3, metrics.getGetLatency(HybridCacheTier.MEMORY).getCount());
+            assertTrue(metrics.getGetLatency(HybridCacheTier.REDIS).getValueAtPercentile(99) > 0);
+            assertEquals(0.5, metrics.getHitRate(HybridCacheTier.REDIS));
+
+            hybridCache.removeAll(Arrays.asList(key, key + ":local"));
+        }
+    }
+
+    @Test
+    public void testRedisCachePriority() {
+        String prefix = "priority:" + System.nanoTime() + ":";
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        try (HybridCache hybridCache = new HybridCache(option -> {
+                    option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                    option.setSizeLimit(100);
+                    option.setPromotionPolicy(PromotionPolicy.always());
+                    option.setMetricsRecorder(metrics);
+                });
+                HybridCache storeOnly = new HybridCache()) {
+            hybridCache.set(
+                    prefix + "pinned", "pinned", options -> options.setPriority(CacheItemPriority.NEVER_REMOVE));
+            hybridCache.set(prefix + "high", "high", options -> options.setPriority(CacheItemPriority.HIGH));
+            hybridCache.set(prefix + "low", "low", options -> options.setPriority(CacheItemPriority.LOW));
+            for (int i = 0; i < 1000; i++) {
+                hybridCache.set(prefix + i, "value" + i, options -> options.setCachePlace(HybridCachePlace.MEMORY));
+            }
+            sleep(100);
+
+            // 固定的和保留区域中的缓存项没有被大量写入的普通缓存项挤出内存缓存
+            assertEquals("pinned", hybridCache.get(prefix + "pinned", String.class));
+            assertEquals("high", hybridCache.get(prefix + "high", String.class));
+            assertEquals(2, metrics.getHits(HybridCacheTier.MEMORY));
+
+            // 永不移除的值同时写入了存储
+            assertEquals("pinned", storeOnly.get(prefix + "pinned", String.class));
+
+            // 低优先级的值只存储在 Redis 中，读取后也不提升到内存缓存
+            assertEquals("low", hybridCache.get(prefix + "low", String.class));
+            sleep(100);
+            assertEquals("low", hybridCache.get(prefix + "low", String.class));
+            assertEquals(2, metrics.getHits(HybridCacheTier.MEMORY));
+            assertEquals(2, metrics.getHits(HybridCacheTier.REDIS));
+
+            hybridCache.removeAll(Arrays.asList(prefix + "pinned", prefix + "high", prefix + "low"));
+            try (HybridCache other = new HybridCache()) {
+                assertNull(other.get(prefix + "pinned", String.class));
+            }
+        }
+    }
+
+    @Test
+    public void testRedisCachePlacement() throws IOException {
+        String prefix = "placement:" + System.nanoTime() + ":";
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        Consumer<HybridCacheOptions> optionsAction = option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+            option.setPromotionPolicy(PromotionPolicy.never());
+            option.getPlacementOptions().setEnabled(true);
+            option.getPlacementOptions().setLocalThreshold(16);
+            option.getPlacementOptions().setFrequencyThreshold(2);
+            option.getPlacementOptions().setStoreThreshold(64);
+        };
+        String directory = Files.createTempDirectory("hybridcache").toString();
+        String otherDirectory = Files.createTempDirectory("hybridcache").toString();
+        try (HybridCache hybridCache = new HybridCache(optionsAction.andThen(option -> {
+                    option.getHybridStoreOption().setBucket(directory);
+                    option.setMetricsRecorder(metrics);
+                }));
+                HybridCache other = new HybridCache(optionsAction.andThen(
+                        option -> option.getHybridStoreOption().setBucket(otherDirectory)))) {
+            // 存储位于各个节点的本地磁盘上，大值不转移到存储，其他节点仍然可以从 Redis 中读取
+            String large = StringUtils.repeat('x', 100);
+            hybridCache.set(prefix + "large", large);
+            assertEquals(large, other.get(prefix + "large", String.class));
+
+            // 频繁读取的小值在再次写入时保留在本地内存缓存中
+            hybridCache.set(prefix + "small", "v1");
+            assertEquals("v1", hybridCache.get(prefix + "small", String.class));
+            assertEquals("v1", hybridCache.get(prefix + "small", String.class));
+            assertEquals(0, metrics.getHits(HybridCacheTier.MEMORY));
+            hybridCache.set(prefix + "small", "v2");
+            assertEquals("v2", hybridCache.get(prefix + "small", String.class));
+            assertEquals(1, metrics.getHits(HybridCacheTier.MEMORY));
+            assertEquals("v2", other.get(prefix + "small", String.class));
+
+            hybridCache.removeAll(Arrays.asList(prefix + "large", prefix + "small"));
+            assertNull(other.get(prefix + "large", String.class));
+            assertNull(other.get(prefix + "small", String.class));
+        }
+    }
+
+    @Test
+    public void testRedisCacheHotKey() {
+        String key = "hotkey:" + System.nanoTime();
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        try (HybridCache hybridCache = new HybridCache(option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+            option.setPromotionPolicy(PromotionPolicy.afterHits(100));
+            option.getHotKeyOptions().setEnabled(true);
+            option.getHotKeyOptions().setThreshold(3);
+            option.getHotKeyOptions().setTimeToLive(Duration.ofSeconds(2));
+            option.setMetricsRecorder(metrics);
+        })) {
+            hybridCache.set(key, "value");
+            for (int i = 0; i < 3; i++) {
+                assertEquals("value", hybridCache.get(key, String.class));
+            }
+
+            // 第三次从 Redis 读取时成为热点键，固定到内存缓存后的读取命中内存缓存
+            waitUntil(() -> metrics.getHotKeyPins() == 1);
+            assertEquals(key, hybridCache.getHotKeys().get(0).getKey());
+            assertEquals("value", hybridCache.get(key, String.class));
+            assertEquals(1, metrics.getHits(HybridCacheTier.MEMORY));
+            assertEquals(3, metrics.getHits(HybridCacheTier.REDIS));
+
+            // 超过热点键的过期时间后回到 Redis 读取
+            waitUntil(() ->
+                    "value".equals(hybridCache.get(key, String.class)) && metrics.getHits(HybridCacheTier.REDIS) == 4);
+
+            hybridCache.remove(key);
+        }
+    }
+
+    @Test
+    public void testRedisCacheConnectionMode() {
+        for (RedisConnectionMode mode : Arrays.asList(RedisConnectionMode.BATCHED, RedisConnectionMode.POOLED)) {
+            try (HybridCache hybridCache = new HybridCache(option -> {
+                        option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                        option.getRedisCacheOptions().setConnectionMode(mode);
+                        option.getRedisCacheOptions().setFlushSize(8);
+                    });
+                    HybridCache other = new HybridCache(
+                            option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+                String prefix = "connection:" + mode + ":" + System.nanoTime() + ":";
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    futures.add(hybridCache.setAsync(prefix + i, "value" + i));
+                }
+                futures.forEach(CompletableFuture::join);
+
+                for (int i = 0; i < 20; i++) {
+                    assertEquals("value" + i, other.get(prefix + i, String.class));
+                    assertEquals("value" + i, hybridCache.get(prefix + i, String.class));
+                }
+
+                for (int i = 0; i < 20; i++) {
+                    hybridCache.remove(prefix + i);
+                }
+                assertNull(hybridCache.get(prefix + 0, String.class));
+            }
+        }
+    }
+
+    @Test
+    public void testRedisCacheSharded() {
+        Consumer<HybridCacheOptions> optionsAction = option -> {
+            // 同一个 Redis 的两个不同地址被视为两个节点
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379,localhost:6379");
+            option.getRedisCacheOptions().setTopology(RedisTopology.SHARDED);
+        };
+        try (HybridCache node1 = new HybridCache(optionsAction);
+                HybridCache node2 = new HybridCache(optionsAction)) {
+            String prefix = "sharded:" + System.nanoTime() + ":";
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < 20; i++) {
+                values.put(prefix + i, "value" + i);
+            }
+            node1.setAll(values);
+
+            assertEquals(values, node2.getAll(values.keySet(), String.class));
+            assertEquals("value0", node2.get(prefix + 0, String.class));
+
+            node1.removeAll(values.keySet());
+            assertTrue(node1.getAll(values.keySet()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testRedisCacheWriteBehind() {
+        String prefix = "writebehind:" + System.nanoTime() + ":";
+        try (HybridCache other =
+                new HybridCache(option -> option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379"))) {
+            try (HybridCache hybridCache = new HybridCache(option -> {
+                option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                option.getWriteBehindOptions().setEnabled(true);
+                option.getWriteBehindOptions().setFlushInterval(Duration.ofSeconds(10));
+            })) {
+                for (int i = 0; i < 20; i++) {
+                    hybridCache.set(prefix + i, "value" + i);
+                    hybridCache.set(prefix + i, "updated" + i);
+                }
+                hybridCache.set(prefix + "removed", "value");
+                hybridCache.remove(prefix + "removed");
+
+                assertEquals("updated0", hybridCache.get(prefix + 0, String.class));
+                assertNull(hybridCache.get(prefix + "removed", String.class));
+                // 关闭时等待队列中的值全部写入
+            }
+
+            for (int i = 0; i < 20; i++) {
+                assertEquals("updated" + i, other.get(prefix + i, String.class));
+                other.remove(prefix + i);
+            }
+            assertNull(other.get(prefix + "removed", String.class));
+
+            // 未达到批次大小的值在时间间隔到达后写入，不等待关闭
+            try (HybridCache hybridCache = new HybridCache(option -> {
+                option.getRedisCacheOptions().setConfiguration("127.0.0.1:6379");
+                option.getWriteBehindOptions().setEnabled(true);
+                option.getWriteBehindOptions().setFlushInterval(Duration.ofMillis(50));
+            })) {
+                hybridCache.set(prefix + "interval", "value");
+                waitUntil(() -> "value".equals(other.get(prefix + "interval", String.class)));
+
+                hybridCache.remove(prefix + "interval");
+                assertNull(other.get(prefix + "interval", String.class));
+            }
+        }
+    }
+
+    @Test
+    public void testCircuitBreaker() {
+        CircuitBreakerOptions options = new CircuitBreakerOptions();
+        options.setWindowSize(4);
+        options.setMinimumCalls(4);
+        options.setHalfOpenCalls(2);
+        options.setOpenDuration(Duration.ofMillis(100));
+        CircuitBreaker circuitBreaker = new CircuitBreaker(options, false);
+
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onFailure(0);
+        circuitBreaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+
+        sleep(150);
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // 慢调用同样会打开断路器
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onSuccess(options.getSlowCallDurationThreshold().toNanos());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testRedisCacheUnavailable() {
+        // 没有 Redis 监听的端口，值被写入分布式对象存储
+        try (HybridCache hybridCache = new HybridCache(option -> {
+            option.getRedisCacheOptions().setConfiguration("127.0.0.1:1");
+            option.getRedisCacheOptions().setHealthCheckInterval(Duration.ofMillis(50));
+        })) {
+            String key = "unavailable:" + System.nanoTime();
+            hybridCache.set(key, "value");
+            assertEquals("value", hybridCache.get(key, String.class));
+
+            hybridCache.remove(key);
+            assertNull(hybridCache.get(key, String.class));
+        }
+    }
+
+    private static long countEntryFiles(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.toString().endsWith(".entry")).count();
+        } catch (IOException | UncheckedIOException e) {
+            // 文件在遍历时被删除
+            return -1;
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10 seconds");
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
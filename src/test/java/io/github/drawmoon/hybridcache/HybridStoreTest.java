@@ -20,8 +20,15 @@ package io.github.drawmoon.hybridcache;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.jupiter.api.Test;
 
@@ -60,6 +67,84 @@ public class HybridStoreTest {
         assertFalse(new File(key.substring(5)).exists());
     }
 
+    @Test
+    public void testStoreStream() throws IOException {
+        HybridStore hybridStore = new HybridStore(x -> {
+            x.setKeyPrefix("disk:");
+        });
+
+        byte[] data = new byte[1024 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        String key = hybridStore.put(
+                "tmp.bin", new ByteArrayInputStream(data), data.length, "default", "application/octet-stream");
+        assertArrayEquals(data, hybridStore.get(key));
+
+        try (InputStream inputStream = hybridStore.openRead(key, 1000, 24)) {
+            byte[] bytes = new byte[64];
+            int length = inputStream.read(bytes);
+            assertEquals(24, length);
+            assertArrayEquals(Arrays.copyOfRange(data, 1000, 1024), Arrays.copyOf(bytes, length));
+            assertEquals(-1, inputStream.read());
+        }
+
+        hybridStore.remove(key);
+        assertNull(hybridStore.openRead(key));
+    }
+
+    @Test
+    public void testStoreBuffer() {
+        HybridStoreOption options = new HybridStoreOption();
+        options.setKeyPrefix("disk:");
+        options.setSyncPolicy(HybridStoreSyncPolicy.ALL);
+        options.setMmapThreshold(1024);
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        HybridStore hybridStore = new HybridStore(options, metrics);
+
+        byte[] data = new byte[64 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        String key = hybridStore.put("tmp.bin", data);
+
+        // 通过内存映射读取
+        ByteBuffer buffer = hybridStore.getBuffer(key);
+        assertTrue(buffer.isReadOnly());
+        assertEquals(ByteBuffer.wrap(data), buffer);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertEquals(data.length, hybridStore.transferTo(key, Channels.newChannel(outputStream)));
+        assertArrayEquals(data, outputStream.toByteArray());
+
+        hybridStore.remove(key);
+        assertNull(hybridStore.getBuffer(key));
+        assertEquals(-1, hybridStore.transferTo(key, Channels.newChannel(outputStream)));
+        // 不存在的值视为未命中，不记录为错误
+        assertEquals(0, metrics.getErrors(HybridCacheTier.STORE));
+    }
+
+    @Test
+    public void testStoreEntry() {
+        HybridCacheMetrics metrics = new HybridCacheMetrics();
+        HybridStore hybridStore = new HybridStore(new HybridStoreOption(), metrics);
+
+        String key = "entry:" + System.nanoTime();
+        assertNull(hybridStore.getEntry(key));
+        assertEquals(0, metrics.getErrors(HybridCacheTier.STORE));
+
+        hybridStore.putEntry(key, "abc".getBytes(StandardCharsets.UTF_8));
+        assertEquals("abc", new String(hybridStore.getEntry(key), StandardCharsets.UTF_8));
+
+        // 相同的键覆盖原有的值
+        hybridStore.putEntry(key, "def".getBytes(StandardCharsets.UTF_8));
+        assertEquals("def", new String(hybridStore.getEntry(key), StandardCharsets.UTF_8));
+
+        hybridStore.removeEntry(key);
+        assertNull(hybridStore.getEntry(key));
+    }
+
     @Test
     public void testMinIOStoreText() {
         HybridStore hybridStore = new HybridStore(x -> {